@@ -0,0 +1,202 @@
+package dev.magadiflo.app.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import dev.magadiflo.app.config.DepartmentCacheProperties;
+import dev.magadiflo.app.model.entity.Department;
+import dev.magadiflo.app.model.entity.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caché asíncrona de grafos de departamento por id, acotada por tamaño y TTL. Mantiene un índice inverso
+ * empleado -> departamentos para invalidar con precisión los departamentos que contienen a un empleado modificado.
+ * Las invalidaciones se aplican al momento y otra vez al terminar la transacción en curso, para descartar
+ * lo que otra lectura haya cargado antes del commit. Cada lectura recibe una copia: el servicio modifica el
+ * grafo antes de guardarlo. El índice se limpia en el mismo paso que quita la entrada (evictionListener corre
+ * dentro del desalojo e invalidate usa compute), nunca después: así no puede borrar lo que ya indexó una
+ * recarga del mismo departamento.
+ * Los cambios hechos desde otras instancias llegan por DepartmentGraphChangeListener; mientras no hay escucha
+ * activa la caché queda deshabilitada y las lecturas van directo a la base de datos.
+ */
+@Slf4j
+@Component
+public class DepartmentGraphCache {
+
+    public static final String CACHE_NAME = "department.graphs";
+
+    private final AsyncCache<Long, Department> cache;
+    private final Map<Long, Set<Long>> departmentIdsByEmployeeId = new ConcurrentHashMap<>();
+    private volatile boolean enabled = true;
+
+    public DepartmentGraphCache(DepartmentCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.expireAfterWrite())
+                .recordStats()
+                .evictionListener((Long departmentId, Department department, RemovalCause cause) -> this.unindex(department))
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, CACHE_NAME);
+    }
+
+    public Mono<Department> get(Long departmentId, Function<Long, Mono<Department>> loader) {
+        if (!this.enabled) {
+            return loader.apply(departmentId);
+        }
+        // El future lo comparten todos los que esperan la misma carga: cancelar una espera no debe cancelarlo.
+        return Mono.fromFuture(() -> this.cache.get(departmentId, (id, executor) -> loader.apply(id)
+                                .doOnNext(this::index)
+                                .toFuture()),
+                        true)
+                .map(DepartmentGraphCache::copyOf);
+    }
+
+    /**
+     * Invalida el departamento y cualquier otro departamento en caché que contenga a alguno de los empleados.
+     */
+    public Mono<Void> evictDepartment(Long departmentId, Collection<Long> employeeIds) {
+        return this.evictNowAndAfterCompletion(() -> {
+            Set<Long> departmentIds = this.departmentsOf(employeeIds);
+            departmentIds.add(departmentId);
+            return departmentIds;
+        });
+    }
+
+    public Mono<Void> evictEmployee(Long employeeId) {
+        return this.evictNowAndAfterCompletion(() -> this.departmentsOf(List.of(employeeId)));
+    }
+
+    public void invalidateDepartment(Long departmentId) {
+        this.invalidate(Set.of(departmentId));
+    }
+
+    public void invalidateEmployee(Long employeeId) {
+        this.invalidate(this.departmentsOf(List.of(employeeId)));
+    }
+
+    public void invalidateAll() {
+        log.debug("Invalidando todos los grafos de departamento");
+        this.remove(Set.copyOf(this.cache.asMap().keySet()));
+    }
+
+    /**
+     * Deja de servir y de guardar grafos hasta llamar a enable(): sin escucha de cambios no hay forma de saber
+     * qué modificaron las demás instancias.
+     */
+    public void disable() {
+        this.enabled = false;
+        this.invalidateAll();
+    }
+
+    public void enable() {
+        this.invalidateAll();
+        this.enabled = true;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    private Mono<Void> evictNowAndAfterCompletion(Supplier<Set<Long>> departmentIds) {
+        return Mono.defer(() -> {
+            this.invalidate(departmentIds.get());
+            return TransactionSynchronizationManager.forCurrentTransaction()
+                    .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                    .doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCompletion(int status) {
+                            return Mono.fromRunnable(() -> invalidate(departmentIds.get()));
+                        }
+                    }))
+                    .onErrorResume(NoTransactionException.class, exception -> Mono.empty())
+                    .then();
+        });
+    }
+
+    private void invalidate(Set<Long> departmentIds) {
+        log.debug("Invalidando grafos de departamento {}", departmentIds);
+        this.remove(departmentIds);
+    }
+
+    /**
+     * Una carga en curso se quita sin tocar el índice: lo que indexe al terminar solo provoca invalidaciones de más.
+     */
+    private void remove(Set<Long> departmentIds) {
+        for (Long departmentId : departmentIds) {
+            this.cache.asMap().computeIfPresent(departmentId, (id, graph) -> {
+                this.unindex(graph.isDone() && !graph.isCompletedExceptionally() ? graph.join() : null);
+                return null;
+            });
+        }
+    }
+
+    private Set<Long> departmentsOf(Collection<Long> employeeIds) {
+        Set<Long> departmentIds = new HashSet<>();
+        for (Long employeeId : employeeIds) {
+            Set<Long> indexed = this.departmentIdsByEmployeeId.get(employeeId);
+            if (indexed != null) {
+                departmentIds.addAll(indexed);
+            }
+        }
+        return departmentIds;
+    }
+
+    private void index(Department department) {
+        for (Long employeeId : memberIds(department)) {
+            this.departmentIdsByEmployeeId.computeIfAbsent(employeeId, id -> ConcurrentHashMap.newKeySet())
+                    .add(department.getId());
+        }
+    }
+
+    private void unindex(Department department) {
+        if (department == null) {
+            return;
+        }
+        for (Long employeeId : memberIds(department)) {
+            this.departmentIdsByEmployeeId.computeIfPresent(employeeId, (id, departmentIds) -> {
+                departmentIds.remove(department.getId());
+                return departmentIds.isEmpty() ? null : departmentIds;
+            });
+        }
+    }
+
+    public static List<Long> memberIds(Department department) {
+        List<Long> memberIds = new ArrayList<>(department.getEmployees().size() + 1);
+        department.getManager().ifPresent(manager -> memberIds.add(manager.getId()));
+        for (Employee employee : department.getEmployees()) {
+            memberIds.add(employee.getId());
+        }
+        return memberIds;
+    }
+
+    private static Department copyOf(Department department) {
+        List<Employee> employees = new ArrayList<>(department.getEmployees().size());
+        for (Employee employee : department.getEmployees()) {
+            employees.add(copyOf(employee));
+        }
+        return new Department(department.getId(), department.getName(),
+                department.getManager().map(DepartmentGraphCache::copyOf).orElse(null), employees);
+    }
+
+    private static Employee copyOf(Employee employee) {
+        return new Employee(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getPosition(), employee.isFullTime());
+    }
+}
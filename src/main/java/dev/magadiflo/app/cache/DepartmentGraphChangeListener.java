@@ -0,0 +1,146 @@
+package dev.magadiflo.app.cache;
+
+import dev.magadiflo.app.config.DepartmentCacheProperties;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Option;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Mantiene la caché de grafos coherente entre instancias: escucha el canal department_graph_changes, que los
+ * triggers de functions.sql notifican al hacer commit, e invalida el departamento o los departamentos del
+ * empleado que cambió.
+ * Usa una conexión propia fuera del pool, con las mismas opciones spring.r2dbc.properties.* que el pool,
+ * comprobada cada listenerHealthCheckInterval. Si la conexión se cae se pierden las notificaciones de ese
+ * intervalo, así que la caché se deshabilita y se vacía hasta que el LISTEN vuelve a estar activo; la
+ * reconexión reintenta con backoff exponencial.
+ */
+@Slf4j
+@Component
+public class DepartmentGraphChangeListener implements SmartLifecycle {
+
+    public static final String CHANNEL = "department_graph_changes";
+    private static final String APPLICATION_NAME = "department-graph-listener";
+
+    private final DepartmentGraphCache cache;
+    private final DepartmentCacheProperties properties;
+    private final ConnectionFactory connectionFactory;
+    private volatile Disposable subscription;
+
+    public DepartmentGraphChangeListener(DepartmentGraphCache cache, DepartmentCacheProperties properties,
+                                         R2dbcProperties r2dbcProperties) {
+        this.cache = cache;
+        this.properties = properties;
+        this.connectionFactory = ConnectionFactoryBuilder.withUrl(r2dbcProperties.getUrl())
+                .username(r2dbcProperties.getUsername())
+                .password(r2dbcProperties.getPassword())
+                .configure(options -> {
+                    r2dbcProperties.getProperties().forEach((key, value) -> options.option(Option.valueOf(key), value));
+                    options.option(Option.valueOf("applicationName"), APPLICATION_NAME);
+                })
+                .build();
+    }
+
+    @Override
+    public void start() {
+        if (!this.properties.listenForChanges()) {
+            return;
+        }
+        this.cache.disable();
+        this.subscription = this.listen()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, this.properties.listenerMinBackoff())
+                        .maxBackoff(this.properties.listenerMaxBackoff())
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> log.warn("Se perdió la escucha de {}, reintento {}: {}",
+                                CHANNEL, signal.totalRetriesInARow() + 1, signal.failure().toString())))
+                .subscribe(this::apply, exception -> log.error("La escucha de {} terminó", CHANNEL, exception));
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = this.subscription;
+        if (current != null) {
+            current.dispose();
+            this.subscription = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.subscription != null;
+    }
+
+    private Flux<Notification> listen() {
+        return Flux.usingWhen(this.connectionFactory.create(),
+                        connection -> this.listen(unwrap(connection)),
+                        connection -> Mono.from(connection.close()).onErrorResume(exception -> Mono.empty()))
+                .concatWith(Mono.error(() -> new IllegalStateException("La conexión de escucha se cerró")))
+                .doOnError(exception -> this.cache.disable());
+    }
+
+    /**
+     * Se suscribe a las notificaciones antes del LISTEN para no perder ninguna, y habilita la caché (vaciándola)
+     * recién cuando el LISTEN está activo: lo que cambió mientras no se escuchaba queda descartado.
+     */
+    private Flux<Notification> listen(PostgresqlConnection connection) {
+        Mono<Void> listenAndCheck = connection.createStatement("LISTEN " + CHANNEL)
+                .execute()
+                .flatMap(PostgresqlResult::getRowsUpdated)
+                .then(Mono.fromRunnable(() -> {
+                    log.info("Escuchando cambios de grafos de departamento en {}", CHANNEL);
+                    this.cache.enable();
+                }))
+                .then(this.healthCheck(connection));
+        return Flux.merge(connection.getNotifications(), listenAndCheck.cast(Notification.class));
+    }
+
+    private Mono<Void> healthCheck(PostgresqlConnection connection) {
+        return Flux.interval(this.properties.listenerHealthCheckInterval())
+                .concatMap(tick -> connection.createStatement("SELECT 1")
+                        .execute()
+                        .flatMap(PostgresqlResult::getRowsUpdated)
+                        .then()
+                        .timeout(this.properties.listenerHealthCheckInterval()))
+                .then();
+    }
+
+    private void apply(Notification notification) {
+        String payload = notification.getParameter();
+        log.debug("Cambio notificado en {}: {}", CHANNEL, payload);
+        try {
+            if (payload != null && payload.startsWith("d:")) {
+                this.cache.invalidateDepartment(Long.valueOf(payload.substring(2)));
+            } else if (payload != null && payload.startsWith("e:")) {
+                this.cache.invalidateEmployee(Long.valueOf(payload.substring(2)));
+            } else {
+                this.cache.invalidateAll();
+            }
+        } catch (NumberFormatException exception) {
+            log.warn("Notificación no reconocida en {}: {}", CHANNEL, payload);
+            this.cache.invalidateAll();
+        }
+    }
+
+    private static PostgresqlConnection unwrap(Connection connection) {
+        Object current = connection;
+        while (!(current instanceof PostgresqlConnection) && current instanceof Wrapped<?> wrapped) {
+            current = wrapped.unwrap();
+        }
+        if (current instanceof PostgresqlConnection postgresqlConnection) {
+            return postgresqlConnection;
+        }
+        throw new IllegalStateException("La escucha de cambios necesita una conexión de r2dbc-postgresql");
+    }
+}
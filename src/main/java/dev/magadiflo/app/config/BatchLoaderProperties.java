@@ -0,0 +1,17 @@
+package dev.magadiflo.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Ventana y tamaño máximo de los lotes con que se agrupan las lecturas por id de departamentos y empleados.
+ */
+@ConfigurationProperties(prefix = "app.batch-loader")
+public record BatchLoaderProperties(@DefaultValue("2ms")
+                                    Duration window,
+
+                                    @DefaultValue("100")
+                                    int maxBatchSize) {
+}
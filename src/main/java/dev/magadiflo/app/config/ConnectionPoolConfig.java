@@ -0,0 +1,64 @@
+package dev.magadiflo.app.config;
+
+import dev.magadiflo.app.pool.TimedConnectionFactory;
+import dev.magadiflo.app.trace.QueryTraceRecorder;
+import dev.magadiflo.app.trace.TracingConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Option;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Reemplaza al pool que arma Spring Boot para poder fijar la revisión en segundo plano de conexiones ociosas y
+ * medir el tiempo de adquisición. El tamaño, los tiempos máximos y la validación se siguen configurando con
+ * spring.r2dbc.pool.*; si se define validation-query, cada adquisición paga un viaje extra a Postgres, por eso
+ * por defecto la validación es local (validation-depth). Las métricas r2dbc.pool.* de Actuator siguen
+ * publicándose porque TimedConnectionFactory expone el pool con Wrapped. Las conexiones físicas se envuelven con
+ * TracingConnectionFactory antes de entrar al pool, salvo con app.query-trace.enabled=false.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+    private static final String POOL_NAME = "connectionFactory";
+
+    @Bean(destroyMethod = "dispose")
+    public TimedConnectionFactory connectionFactory(R2dbcProperties properties,
+                                                    ConnectionPoolProperties poolProperties,
+                                                    QueryTraceRecorder queryTraceRecorder,
+                                                    MeterRegistry meterRegistry) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .configure(options -> properties.getProperties()
+                        .forEach((key, value) -> options.option(Option.valueOf(key), value)))
+                .build();
+
+        R2dbcProperties.Pool pool = properties.getPool();
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        if (queryTraceRecorder.isEnabled()) {
+            connectionFactory = new TracingConnectionFactory(connectionFactory, queryTraceRecorder);
+        }
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory)
+                .name(POOL_NAME)
+                .backgroundEvictionInterval(poolProperties.backgroundEvictionInterval());
+        map.from(pool.getInitialSize()).to(builder::initialSize);
+        map.from(pool.getMinIdle()).to(builder::minIdle);
+        map.from(pool.getMaxSize()).to(builder::maxSize);
+        map.from(pool.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(pool.getMaxValidationTime()).to(builder::maxValidationTime);
+        map.from(pool.getValidationQuery()).when(StringUtils::hasText).to(builder::validationQuery);
+        map.from(pool.getValidationDepth()).to(builder::validationDepth);
+
+        return new TimedConnectionFactory(POOL_NAME, new ConnectionPool(builder.build()), meterRegistry);
+    }
+}
@@ -0,0 +1,18 @@
+package dev.magadiflo.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Lo que spring.r2dbc.pool no cubre: cada cuánto se revisan en segundo plano las conexiones ociosas (max-idle-time)
+ * y vencidas (max-life-time), y cuánto puede esperar el arranque a que el pool abra sus initial-size conexiones.
+ */
+@ConfigurationProperties(prefix = "app.connection-pool")
+public record ConnectionPoolProperties(@DefaultValue("30s")
+                                       Duration backgroundEvictionInterval,
+
+                                       @DefaultValue("10s")
+                                       Duration warmUpTimeout) {
+}
@@ -0,0 +1,30 @@
+package dev.magadiflo.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Límites de la caché de grafos de departamento (departamento, manager y empleados) por id y de la escucha
+ * de cambios (LISTEN department_graph_changes) que la mantiene coherente entre instancias.
+ */
+@ConfigurationProperties(prefix = "app.department-cache")
+public record DepartmentCacheProperties(@DefaultValue("10000")
+                                        long maximumSize,
+
+                                        @DefaultValue("5m")
+                                        Duration expireAfterWrite,
+
+                                        @DefaultValue("true")
+                                        boolean listenForChanges,
+
+                                        @DefaultValue("30s")
+                                        Duration listenerHealthCheckInterval,
+
+                                        @DefaultValue("500ms")
+                                        Duration listenerMinBackoff,
+
+                                        @DefaultValue("30s")
+                                        Duration listenerMaxBackoff) {
+}
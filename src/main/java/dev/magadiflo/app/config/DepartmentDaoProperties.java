@@ -0,0 +1,47 @@
+package dev.magadiflo.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "app.department-dao")
+public record DepartmentDaoProperties(@DefaultValue("join")
+                                      ReadStrategy readStrategy,
+                                      @DefaultValue("statement-chain")
+                                      WriteStrategy writeStrategy,
+                                      @DefaultValue("1000")
+                                      int linkChunkSize) {
+
+    public enum ReadStrategy {
+        /**
+         * Un único LEFT JOIN que devuelve una fila por empleado, agrupada luego en memoria.
+         */
+        JOIN,
+        /**
+         * Postgres construye el grafo de cada departamento con json_build_object/json_agg
+         * y lo devuelve en una sola fila por departamento.
+         */
+        JSON_AGGREGATION,
+        /**
+         * Tres consultas estrechas en paralelo (departamentos, gerentes y empleados), cada una en su propia
+         * conexión cuando no hay transacción activa, unidas luego en memoria por id de departamento.
+         */
+        MULTI_QUERY
+    }
+
+    public enum WriteStrategy {
+        /**
+         * Una sentencia por paso (departamento, empleados, vínculos), cada una esperando a la anterior.
+         */
+        STATEMENT_CHAIN,
+        /**
+         * Todo el guardado en una única sentencia con CTEs que modifican datos: un solo viaje de ida y vuelta
+         * a Postgres sin importar cuántos pasos tenga.
+         */
+        SINGLE_STATEMENT,
+        /**
+         * Los empleados se guardan con un upsert masivo y el departamento con sus vínculos con la función
+         * save_department_graph de functions.sql, en una sola llamada.
+         */
+        FUNCTION
+    }
+}
@@ -0,0 +1,12 @@
+package dev.magadiflo.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Límite de ids distintos (a agregar más a quitar) que acepta un solo cambio de membresía de un departamento.
+ */
+@ConfigurationProperties(prefix = "app.department-membership")
+public record DepartmentMembershipProperties(@DefaultValue("100")
+                                             int maxChanges) {
+}
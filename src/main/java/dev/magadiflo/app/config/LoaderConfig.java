@@ -0,0 +1,40 @@
+package dev.magadiflo.app.config;
+
+import dev.magadiflo.app.dao.impl.DepartmentDaoImpl;
+import dev.magadiflo.app.loader.BatchLoader;
+import dev.magadiflo.app.loader.SingleFlight;
+import dev.magadiflo.app.model.entity.Department;
+import dev.magadiflo.app.model.entity.Employee;
+import dev.magadiflo.app.repository.EmployeeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LoaderConfig {
+    @Bean
+    public SingleFlight<Long, Department> departmentGraphSingleFlight(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("department.graph", meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<Long, Employee> employeeSingleFlight(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("employee", meterRegistry);
+    }
+
+    @Bean
+    public BatchLoader<Long, Department> departmentBatchLoader(DepartmentDaoImpl departmentDao,
+                                                               BatchLoaderProperties properties,
+                                                               MeterRegistry meterRegistry) {
+        return new BatchLoader<>("department", departmentDao::findAllById, Department::getId,
+                properties.window(), properties.maxBatchSize(), meterRegistry);
+    }
+
+    @Bean
+    public BatchLoader<Long, Employee> employeeBatchLoader(EmployeeRepository employeeRepository,
+                                                           BatchLoaderProperties properties,
+                                                           MeterRegistry meterRegistry) {
+        return new BatchLoader<>("employee", employeeRepository::findAllByIds, Employee::getId,
+                properties.window(), properties.maxBatchSize(), meterRegistry);
+    }
+}
@@ -0,0 +1,19 @@
+package dev.magadiflo.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "app.pagination")
+public record PaginationProperties(@DefaultValue("20")
+                                   int defaultSize,
+
+                                   @DefaultValue("100")
+                                   int maxSize) {
+
+    public int resolveSize(Integer requestedSize) {
+        if (requestedSize == null || requestedSize < 1) {
+            return this.defaultSize;
+        }
+        return Math.min(requestedSize, this.maxSize);
+    }
+}
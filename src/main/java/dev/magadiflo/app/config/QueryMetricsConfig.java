@@ -0,0 +1,39 @@
+package dev.magadiflo.app.config;
+
+import dev.magadiflo.app.metrics.QueryMetrics;
+import dev.magadiflo.app.metrics.RepositoryQueryMetricsInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.StringUtils;
+
+@Configuration
+public class QueryMetricsConfig {
+
+    /**
+     * Agrega RepositoryQueryMetricsInterceptor al proxy de cada repositorio antes de que se cree. El prefijo sale
+     * del nombre de la interfaz: EmployeeRepository publica employee.*.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryQueryMetricsPostProcessor(ObjectProvider<QueryMetrics> queryMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(new RepositoryQueryMetricsInterceptor(
+                                    prefix(repositoryInformation.getRepositoryInterface()), queryMetrics))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static String prefix(Class<?> repositoryInterface) {
+        String simpleName = repositoryInterface.getSimpleName();
+        return StringUtils.uncapitalize(simpleName.endsWith("Repository") ?
+                simpleName.substring(0, simpleName.length() - "Repository".length()) : simpleName);
+    }
+}
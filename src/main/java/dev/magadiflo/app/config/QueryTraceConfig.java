@@ -0,0 +1,18 @@
+package dev.magadiflo.app.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+
+@Configuration
+public class QueryTraceConfig {
+
+    /**
+     * Deja el exchange en el Context para que el registro de sentencias anote qué endpoint ejecutó cada una. El
+     * método y la ruta se leen recién al guardar una sentencia, no en cada petición.
+     */
+    @Bean
+    public ServerWebExchangeContextFilter serverWebExchangeContextFilter() {
+        return new ServerWebExchangeContextFilter();
+    }
+}
@@ -0,0 +1,29 @@
+package dev.magadiflo.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Registro en memoria de sentencias SQL: guarda las últimas capacity (redondeado a potencia de dos) que cayeron en
+ * la muestra (sampleRate entre 0 y 1) o tardaron al menos slowThreshold. Con enabled=false las conexiones no se
+ * envuelven. Los volcados a archivo se escriben en dumpDirectory.
+ */
+@ConfigurationProperties(prefix = "app.query-trace")
+public record QueryTraceProperties(@DefaultValue("true")
+                                   boolean enabled,
+
+                                   @DefaultValue("1024")
+                                   int capacity,
+
+                                   @DefaultValue("0.01")
+                                   double sampleRate,
+
+                                   @DefaultValue("100ms")
+                                   Duration slowThreshold,
+
+                                   @DefaultValue("logs")
+                                   Path dumpDirectory) {
+}
@@ -0,0 +1,33 @@
+package dev.magadiflo.app.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.magadiflo.app.timing.ServerTimingFilter;
+import dev.magadiflo.app.timing.TimedJackson2JsonEncoder;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+public class ServerTimingConfig {
+
+    /**
+     * Primero de la cadena, para que total incluya a los demás filtros.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public ServerTimingFilter serverTimingFilter(ServerTimingProperties properties) {
+        return new ServerTimingFilter(properties);
+    }
+
+    /**
+     * Corre después del CodecCustomizer de Jackson de Spring Boot (orden 0) para reemplazar su encoder JSON
+     * por uno que mide la serialización, con el mismo ObjectMapper.
+     */
+    @Bean
+    @Order(1)
+    public CodecCustomizer timedJsonEncoderCustomizer(ObjectMapper objectMapper) {
+        return configurer -> configurer.defaultCodecs().jackson2JsonEncoder(new TimedJackson2JsonEncoder(objectMapper));
+    }
+}
@@ -0,0 +1,21 @@
+package dev.magadiflo.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Cuándo se agrega la cabecera Server-Timing: si la petición trae requestHeader o si cae en la muestra
+ * (sampleRate entre 0 y 1). Solo se miden las rutas que empiezan con alguno de pathPrefixes.
+ */
+@ConfigurationProperties(prefix = "app.server-timing")
+public record ServerTimingProperties(@DefaultValue("X-Server-Timing")
+                                     String requestHeader,
+
+                                     @DefaultValue("0.0")
+                                     double sampleRate,
+
+                                     @DefaultValue({"/api/v1/departments", "/api/v1/employees"})
+                                     List<String> pathPrefixes) {
+}
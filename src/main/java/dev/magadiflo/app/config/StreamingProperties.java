@@ -0,0 +1,13 @@
+package dev.magadiflo.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuración de los listados en streaming (NDJSON / SSE). El mismo valor se usa como fetch size del
+ * cursor de Postgres y como tamaño de la demanda hacia el driver, de modo que un cliente lento detiene la lectura.
+ */
+@ConfigurationProperties(prefix = "app.streaming")
+public record StreamingProperties(@DefaultValue("128")
+                                  int fetchSize) {
+}
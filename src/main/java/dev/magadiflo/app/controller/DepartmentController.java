@@ -1,7 +1,11 @@
 package dev.magadiflo.app.controller;
 
+import dev.magadiflo.app.model.dto.BatchGetRequest;
+import dev.magadiflo.app.model.dto.BatchGetResult;
 import dev.magadiflo.app.model.dto.CreateDepartmentRequest;
 import dev.magadiflo.app.model.dto.DepartmentResponse;
+import dev.magadiflo.app.model.dto.MembershipChange;
+import dev.magadiflo.app.model.dto.MembershipRequest;
 import dev.magadiflo.app.model.entity.Department;
 import dev.magadiflo.app.model.entity.Employee;
 import dev.magadiflo.app.service.DepartmentService;
@@ -9,11 +13,15 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Slf4j
 @RequiredArgsConstructor
 @RestController
@@ -23,8 +31,16 @@ public class DepartmentController {
     private final DepartmentService departmentService;
 
     @GetMapping
-    public Mono<ResponseEntity<Flux<Department>>> findAllDepartments() {
-        return Mono.just(ResponseEntity.ok(this.departmentService.getAllDepartments()));
+    public Mono<ResponseEntity<List<Department>>> findAllDepartments(@RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer size,
+                                                                     ServerHttpRequest request) {
+        return this.departmentService.getDepartments(cursor, size)
+                .map(page -> KeysetPageResponses.ok(page, request));
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Department> streamAllDepartments() {
+        return this.departmentService.getAllDepartments();
     }
 
     @GetMapping(path = "/{departmentId}")
@@ -39,10 +55,25 @@ public class DepartmentController {
                 .map(ResponseEntity::ok);
     }
 
+    @PostMapping(path = "/batch-get")
+    public Flux<BatchGetResult<Department>> findDepartmentsWithManagerAndEmployees(@Valid @RequestBody BatchGetRequest request) {
+        return this.departmentService.getDepartmentsWithManagerAndEmployees(request.ids());
+    }
+
     @GetMapping(path = "/{departmentId}/employees")
-    public Mono<ResponseEntity<Flux<Employee>>> getEmployeesFromDepartment(@PathVariable Long departmentId,
-                                                                           @RequestParam(name = "fullTime", required = false) Boolean isFullTime) {
-        return Mono.just(ResponseEntity.ok(this.departmentService.getEmployeesFromDepartment(departmentId, isFullTime)));
+    public Mono<ResponseEntity<List<Employee>>> getEmployeesFromDepartment(@PathVariable Long departmentId,
+                                                                           @RequestParam(name = "fullTime", required = false) Boolean isFullTime,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(required = false) Integer size,
+                                                                           ServerHttpRequest request) {
+        return this.departmentService.getEmployeesFromDepartment(departmentId, isFullTime, cursor, size)
+                .map(page -> KeysetPageResponses.ok(page, request));
+    }
+
+    @GetMapping(path = "/{departmentId}/employees", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Employee> streamEmployeesFromDepartment(@PathVariable Long departmentId,
+                                                        @RequestParam(name = "fullTime", required = false) Boolean isFullTime) {
+        return this.departmentService.getAllEmployeesFromDepartment(departmentId, isFullTime);
     }
 
     @PostMapping
@@ -57,6 +88,31 @@ public class DepartmentController {
                 .map(ResponseEntity::ok);
     }
 
+    @PatchMapping(path = "/{departmentId}/employees")
+    public Mono<ResponseEntity<MembershipChange>> changeEmployees(@PathVariable Long departmentId,
+                                                                  @Valid @RequestBody MembershipRequest request) {
+        return this.departmentService.changeEmployees(departmentId, request)
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping(path = "/{departmentId}/employees/{employeeId}")
+    public Mono<ResponseEntity<Void>> addEmployee(@PathVariable Long departmentId, @PathVariable Long employeeId) {
+        return this.departmentService.addEmployee(departmentId, employeeId)
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @DeleteMapping(path = "/{departmentId}/employees/{employeeId}")
+    public Mono<ResponseEntity<Void>> removeEmployee(@PathVariable Long departmentId, @PathVariable Long employeeId) {
+        return this.departmentService.removeEmployee(departmentId, employeeId)
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @PutMapping(path = "/{departmentId}/manager/{employeeId}")
+    public Mono<ResponseEntity<Void>> assignManager(@PathVariable Long departmentId, @PathVariable Long employeeId) {
+        return this.departmentService.assignManager(departmentId, employeeId)
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
     @DeleteMapping(path = "/{departmentId}")
     public Mono<ResponseEntity<Void>> deleteDepartment(@PathVariable Long departmentId) {
         return this.departmentService.deleteDepartment(departmentId)
@@ -1,5 +1,6 @@
 package dev.magadiflo.app.controller;
 
+import dev.magadiflo.app.model.dto.BatchGetResult;
 import dev.magadiflo.app.model.dto.CreateEmployeeRequest;
 import dev.magadiflo.app.model.entity.Employee;
 import dev.magadiflo.app.service.EmployeeService;
@@ -7,11 +8,15 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Slf4j
 @RequiredArgsConstructor
 @RestController
@@ -21,9 +26,24 @@ public class EmployeeController {
     private final EmployeeService employeeService;
 
     @GetMapping
-    public Mono<ResponseEntity<Flux<Employee>>> findAllEmployees(@RequestParam(required = false) String position,
-                                                                 @RequestParam(name = "fullTime", required = false) Boolean isFullTime) {
-        return Mono.just(ResponseEntity.ok(this.employeeService.getAllEmployees(position, isFullTime)));
+    public Mono<ResponseEntity<List<Employee>>> findAllEmployees(@RequestParam(required = false) String position,
+                                                                 @RequestParam(name = "fullTime", required = false) Boolean isFullTime,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer size,
+                                                                 ServerHttpRequest request) {
+        return this.employeeService.getEmployees(position, isFullTime, cursor, size)
+                .map(page -> KeysetPageResponses.ok(page, request));
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Employee> streamAllEmployees(@RequestParam(required = false) String position,
+                                             @RequestParam(name = "fullTime", required = false) Boolean isFullTime) {
+        return this.employeeService.getAllEmployees(position, isFullTime);
+    }
+
+    @GetMapping(params = "ids")
+    public Flux<BatchGetResult<Employee>> findEmployeesById(@RequestParam List<Long> ids) {
+        return this.employeeService.getEmployeesById(ids);
     }
 
     @GetMapping(path = "/{employeeId}")
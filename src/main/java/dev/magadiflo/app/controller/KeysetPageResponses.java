@@ -0,0 +1,32 @@
+package dev.magadiflo.app.controller;
+
+import dev.magadiflo.app.model.dto.KeysetPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+
+final class KeysetPageResponses {
+
+    private KeysetPageResponses() {
+    }
+
+    /**
+     * Devuelve el contenido de la página como arreglo JSON y, si hay más datos, la cabecera
+     * {@code Link: <...?cursor=...>; rel="next"} conservando el resto de parámetros de la petición.
+     */
+    static <T> ResponseEntity<List<T>> ok(KeysetPage<T> page, ServerHttpRequest request) {
+        if (page.nextCursor() == null) {
+            return ResponseEntity.ok(page.content());
+        }
+        String nextPage = UriComponentsBuilder.fromUri(request.getURI())
+                .replaceQueryParam("cursor", page.nextCursor())
+                .build()
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<%s>; rel=\"next\"".formatted(nextPage))
+                .body(page.content());
+    }
+}
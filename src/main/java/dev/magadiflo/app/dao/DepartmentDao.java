@@ -1,19 +1,43 @@
 package dev.magadiflo.app.dao;
 
+import dev.magadiflo.app.model.dto.MembershipChange;
 import dev.magadiflo.app.model.entity.Department;
+import dev.magadiflo.app.model.entity.Employee;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 public interface DepartmentDao {
     Flux<Department> findAll();
 
+    Flux<Department> findPage(long afterId, int size);
+
+    Flux<Department> streamAll(int fetchSize);
+
     Mono<Department> findById(Long departmentId);
 
+    Flux<Department> findAllById(Collection<Long> departmentIds);
+
     Mono<Department> findDepartmentWithManagerAndEmployees(Long departmentId);
 
+    Mono<Department> findDepartmentWithManagerAndEmployeesUncached(Long departmentId);
+
+    Flux<Department> findDepartmentsWithManagerAndEmployees(Collection<Long> departmentIds);
+
     Mono<Department> findByName(String name);
 
+    Flux<Employee> findEmployeePage(Long departmentId, Boolean isFullTime, long afterId, int size);
+
+    Flux<Employee> streamEmployees(Long departmentId, Boolean isFullTime, int fetchSize);
+
+    Mono<Department> insertIfAbsent(String name);
+
     Mono<Department> save(Department department);
 
-    Mono<Void> delete(Department department);
+    Mono<MembershipChange> changeEmployees(Long departmentId, Collection<Long> addIds, Collection<Long> removeIds);
+
+    Mono<MembershipChange> assignManager(Long departmentId, Long employeeId);
+
+    Mono<Long> deleteById(Long departmentId);
 }
@@ -0,0 +1,137 @@
+package dev.magadiflo.app.dao.impl;
+
+import dev.magadiflo.app.cache.DepartmentGraphCache;
+import dev.magadiflo.app.dao.DepartmentDao;
+import dev.magadiflo.app.loader.BatchLoader;
+import dev.magadiflo.app.loader.SingleFlight;
+import dev.magadiflo.app.model.dto.MembershipChange;
+import dev.magadiflo.app.model.entity.Department;
+import dev.magadiflo.app.model.entity.Employee;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Decora a DepartmentDaoImpl con la caché de grafos: findDepartmentWithManagerAndEmployees se sirve desde la caché
+ * y save, changeEmployees y assignManager invalidan el departamento y los demás departamentos donde estaban los
+ * empleados afectados. deleteById solo invalida el departamento: borrarlo no cambia el grafo de ningún otro.
+ * Las cargas del grafo pasan por un SingleFlight, que agrupa las lecturas concurrentes del mismo id cuando la
+ * caché está deshabilitada (la caché ya comparte sus propias cargas en curso). findById se agrupa con las demás
+ * lecturas por id de la misma ventana en una sola consulta. Las escrituras leen el grafo con
+ * findDepartmentWithManagerAndEmployeesUncached.
+ */
+@Primary
+@RequiredArgsConstructor
+@Repository
+public class CachingDepartmentDao implements DepartmentDao {
+
+    private final DepartmentDaoImpl delegate;
+    private final DepartmentGraphCache cache;
+    private final SingleFlight<Long, Department> departmentGraphSingleFlight;
+    private final BatchLoader<Long, Department> departmentBatchLoader;
+
+    @Override
+    public Flux<Department> findAll() {
+        return this.delegate.findAll();
+    }
+
+    @Override
+    public Flux<Department> findPage(long afterId, int size) {
+        return this.delegate.findPage(afterId, size);
+    }
+
+    @Override
+    public Flux<Department> streamAll(int fetchSize) {
+        return this.delegate.streamAll(fetchSize);
+    }
+
+    @Override
+    public Mono<Department> findById(Long departmentId) {
+        return this.departmentBatchLoader.load(departmentId);
+    }
+
+    @Override
+    public Flux<Department> findAllById(Collection<Long> departmentIds) {
+        return this.delegate.findAllById(departmentIds);
+    }
+
+    @Override
+    public Mono<Department> findDepartmentWithManagerAndEmployees(Long departmentId) {
+        return this.cache.get(departmentId, id -> this.departmentGraphSingleFlight.execute(id,
+                this.delegate::findDepartmentWithManagerAndEmployees));
+    }
+
+    /**
+     * Lectura previa a una escritura: va directo a DepartmentDaoImpl, sin caché ni SingleFlight, para que corra con
+     * el Context del llamador y dentro de su transacción.
+     */
+    @Override
+    public Mono<Department> findDepartmentWithManagerAndEmployeesUncached(Long departmentId) {
+        return this.delegate.findDepartmentWithManagerAndEmployees(departmentId);
+    }
+
+    @Override
+    public Flux<Department> findDepartmentsWithManagerAndEmployees(Collection<Long> departmentIds) {
+        return this.delegate.findDepartmentsWithManagerAndEmployees(departmentIds);
+    }
+
+    @Override
+    public Mono<Department> findByName(String name) {
+        return this.delegate.findByName(name);
+    }
+
+    @Override
+    public Flux<Employee> findEmployeePage(Long departmentId, Boolean isFullTime, long afterId, int size) {
+        return this.delegate.findEmployeePage(departmentId, isFullTime, afterId, size);
+    }
+
+    @Override
+    public Flux<Employee> streamEmployees(Long departmentId, Boolean isFullTime, int fetchSize) {
+        return this.delegate.streamEmployees(departmentId, isFullTime, fetchSize);
+    }
+
+    @Override
+    public Mono<Department> insertIfAbsent(String name) {
+        return this.delegate.insertIfAbsent(name);
+    }
+
+    @Override
+    public Mono<Department> save(Department department) {
+        return this.delegate.save(department)
+                .flatMap(departmentDB -> this.cache.evictDepartment(departmentDB.getId(), DepartmentGraphCache.memberIds(departmentDB))
+                        .thenReturn(departmentDB));
+    }
+
+    @Override
+    public Mono<MembershipChange> changeEmployees(Long departmentId, Collection<Long> addIds, Collection<Long> removeIds) {
+        return this.delegate.changeEmployees(departmentId, addIds, removeIds)
+                .flatMap(change -> this.evictMembers(change).thenReturn(change));
+    }
+
+    @Override
+    public Mono<MembershipChange> assignManager(Long departmentId, Long employeeId) {
+        return this.delegate.assignManager(departmentId, employeeId)
+                .flatMap(change -> this.evictMembers(change).thenReturn(change));
+    }
+
+    @Override
+    public Mono<Long> deleteById(Long departmentId) {
+        return this.delegate.deleteById(departmentId)
+                .flatMap(deletedId -> this.cache.evictDepartment(deletedId, List.of()).thenReturn(deletedId));
+    }
+
+    /**
+     * Un empleado agregado puede venir de otro departamento en caché; el índice inverso de la caché lo ubica.
+     */
+    private Mono<Void> evictMembers(MembershipChange change) {
+        List<Long> employeeIds = new ArrayList<>(change.added());
+        employeeIds.addAll(change.removed());
+        return this.cache.evictDepartment(change.departmentId(), employeeIds);
+    }
+}
@@ -1,17 +1,35 @@
 package dev.magadiflo.app.dao.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.magadiflo.app.config.DepartmentDaoProperties;
+import dev.magadiflo.app.exception.DepartmentNotFoundException;
+import dev.magadiflo.app.exception.EmployeeNotFoundException;
+import dev.magadiflo.app.model.dto.MembershipChange;
 import dev.magadiflo.app.model.entity.Department;
 import dev.magadiflo.app.model.entity.Employee;
 import dev.magadiflo.app.dao.DepartmentDao;
+import dev.magadiflo.app.metrics.QueryMetrics;
 import dev.magadiflo.app.repository.EmployeeRepository;
+import dev.magadiflo.app.timing.ServerTiming;
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple3;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -20,6 +38,10 @@ public class DepartmentDaoImpl implements DepartmentDao {
 
     private final EmployeeRepository employeeRepository;
     private final DatabaseClient client;
+    private final ObjectMapper objectMapper;
+    private final DepartmentDaoProperties properties;
+    private final QueryMetrics queryMetrics;
+    private static final int NO_FETCH_SIZE = 0;
     private static final String SELECT_QUERY = """
             SELECT d.id AS d_id,
                     d.name AS d_name,
@@ -40,13 +62,164 @@ public class DepartmentDaoImpl implements DepartmentDao {
                 LEFT JOIN employees AS e ON(de.employee_id = e.id)
             """;
 
+    private static final String JSON_SELECT_QUERY = """
+            SELECT json_build_object(
+                    'id', d.id,
+                    'name', d.name,
+                    'manager', (SELECT json_build_object(
+                                        'id', m.id,
+                                        'firstName', m.first_name,
+                                        'lastName', m.last_name,
+                                        'position', m.position,
+                                        'fullTime', m.is_full_time)
+                                FROM department_managers AS dm
+                                    INNER JOIN employees AS m ON(dm.employee_id = m.id)
+                                WHERE dm.department_id = d.id),
+                    'employees', COALESCE((SELECT json_agg(json_build_object(
+                                                    'id', e.id,
+                                                    'firstName', e.first_name,
+                                                    'lastName', e.last_name,
+                                                    'position', e.position,
+                                                    'fullTime', e.is_full_time))
+                                           FROM department_employees AS de
+                                               INNER JOIN employees AS e ON(de.employee_id = e.id)
+                                           WHERE de.department_id = d.id), '[]'::json)
+                    )::text AS department
+            FROM departments AS d
+            """;
+
+    private static final String MANAGER_LINKS_QUERY = """
+            SELECT dm.department_id,
+                    m.id,
+                    m.first_name,
+                    m.last_name,
+                    m.position,
+                    m.is_full_time
+            FROM department_managers AS dm
+                INNER JOIN employees AS m ON(dm.employee_id = m.id)
+            """;
+    private static final String EMPLOYEE_LINKS_QUERY = """
+            SELECT de.department_id,
+                    e.id,
+                    e.first_name,
+                    e.last_name,
+                    e.position,
+                    e.is_full_time
+            FROM department_employees AS de
+                INNER JOIN employees AS e ON(de.employee_id = e.id)
+            """;
+
+    private static final String SAVE_GRAPH_QUERY = """
+            WITH member_input AS MATERIALIZED (
+                SELECT i.id,
+                        CASE WHEN i.id IS NULL THEN nextval(pg_get_serial_sequence('employees', 'id')) END AS new_id,
+                        i.first_name,
+                        i.last_name,
+                        i.position,
+                        i.is_full_time,
+                        i.ordinality
+                FROM unnest(:ids, :firstNames, :lastNames, :positions, :fullTimes)
+                    WITH ORDINALITY AS i(id, first_name, last_name, position, is_full_time, ordinality)
+            ), missing_member AS (
+                SELECT i.id
+                FROM member_input AS i
+                WHERE i.id IS NOT NULL
+                    AND NOT EXISTS(SELECT 1 FROM employees AS e WHERE e.id = i.id)
+            ), updated_department AS (
+                UPDATE departments
+                SET name = :name
+                WHERE id = :departmentId
+                    AND NOT EXISTS(SELECT 1 FROM missing_member)
+                RETURNING id
+            ), inserted_department AS (
+                INSERT INTO departments(name)
+                SELECT :name
+                WHERE :departmentId IS NULL
+                    AND NOT EXISTS(SELECT 1 FROM missing_member)
+                RETURNING id
+            ), department AS (
+                SELECT id FROM updated_department
+                UNION ALL
+                SELECT id FROM inserted_department
+            ), manager AS (
+                SELECT COALESCE(id, new_id) AS id FROM member_input WHERE ordinality <= :managerCount
+            ), employee AS (
+                SELECT COALESCE(id, new_id) AS id FROM member_input WHERE ordinality > :managerCount
+            ), updated_members AS (
+                UPDATE employees AS e
+                SET first_name = i.first_name,
+                    last_name = i.last_name,
+                    position = i.position,
+                    is_full_time = i.is_full_time
+                FROM (SELECT DISTINCT ON (id) *
+                      FROM member_input
+                      WHERE id IS NOT NULL
+                      ORDER BY id, ordinality DESC) AS i
+                WHERE e.id = i.id
+                    AND EXISTS(SELECT 1 FROM department)
+            ), inserted_members AS (
+                INSERT INTO employees(id, first_name, last_name, position, is_full_time)
+                SELECT new_id, first_name, last_name, position, is_full_time
+                FROM member_input
+                WHERE new_id IS NOT NULL
+                    AND EXISTS(SELECT 1 FROM department)
+            ), removed_manager_links AS (
+                DELETE FROM department_managers AS dm
+                USING department AS d
+                WHERE (dm.department_id = d.id OR dm.employee_id IN (SELECT id FROM manager))
+                    AND NOT (dm.department_id = d.id AND dm.employee_id IN (SELECT id FROM manager))
+                RETURNING dm.employee_id
+            ), added_manager_links AS (
+                INSERT INTO department_managers(department_id, employee_id)
+                SELECT d.id, m.id
+                FROM department AS d, manager AS m
+                WHERE (SELECT count(*) FROM removed_manager_links) >= 0
+                    AND NOT EXISTS(SELECT 1
+                                   FROM department_managers AS dm
+                                   WHERE dm.department_id = d.id AND dm.employee_id = m.id)
+            ), removed_employee_links AS (
+                DELETE FROM department_employees AS de
+                USING department AS d
+                WHERE de.department_id = d.id AND de.employee_id NOT IN (SELECT id FROM employee)
+                RETURNING de.employee_id
+            ), added_employee_links AS (
+                INSERT INTO department_employees(department_id, employee_id)
+                SELECT d.id, e.id
+                FROM department AS d, employee AS e
+                WHERE (SELECT count(*) FROM removed_employee_links) >= 0
+                    AND NOT EXISTS(SELECT 1
+                                   FROM department_employees AS de
+                                   WHERE de.department_id = d.id AND de.employee_id = e.id)
+                ON CONFLICT ON CONSTRAINT uk_employee_id_de DO UPDATE SET department_id = EXCLUDED.department_id
+            )
+            SELECT (SELECT id FROM department) AS department_id,
+                    (SELECT min(id) FROM missing_member) AS missing_member_id,
+                    ARRAY(SELECT COALESCE(id, new_id) FROM member_input ORDER BY ordinality) AS member_ids
+            """;
+
     @Override
     public Flux<Department> findAll() {
-        return this.client.sql("%s ORDER BY d.id".formatted(SELECT_QUERY))
-                .fetch()
-                .all()
-                .bufferUntilChanged(rowMap -> rowMap.get("d_id"))
-                .flatMap(Department::fromRows);
+        return this.findGraphs("", Map.of())
+                .transform(this.queryMetrics.flux("department.findAll"));
+    }
+
+    @Override
+    public Flux<Department> findPage(long afterId, int size) {
+        return this.findGraphs("WHERE d.id IN (SELECT id FROM departments WHERE id > :afterId ORDER BY id LIMIT :size)",
+                        Map.of("afterId", afterId, "size", size))
+                .transform(this.queryMetrics.flux("department.findPage"));
+    }
+
+    /**
+     * Lee todos los departamentos con un cursor de {@code fetchSize} filas. La estrategia MULTI_QUERY necesita
+     * el resultado completo para unir los grafos, así que en ese caso el streaming se hace con el JOIN.
+     */
+    @Override
+    public Flux<Department> streamAll(int fetchSize) {
+        Flux<Department> departments = this.properties.readStrategy() == DepartmentDaoProperties.ReadStrategy.JSON_AGGREGATION ?
+                this.findAggregatedGraphs("", Map.of(), fetchSize) :
+                this.findJoinedGraphs("", Map.of(), fetchSize);
+        return departments.transform(this.queryMetrics.flux("department.streamAll"));
     }
 
     @Override
@@ -57,53 +230,412 @@ public class DepartmentDaoImpl implements DepartmentDao {
                         WHERE id = :departmentId
                         """)
                 .bind("departmentId", departmentId)
-                .map((row, rowMetadata) -> Department.builder()
-                        .id(row.get("id", Long.class))
-                        .name(row.get("name", String.class))
-                        .build()
-                )
-                .first();
+                .map((row, rowMetadata) -> Department.fromRow(row))
+                .first()
+                .transform(this.queryMetrics.mono("department.findById"));
     }
 
     @Override
-    public Mono<Department> findDepartmentWithManagerAndEmployees(Long departmentId) {
-        return this.client.sql("%s WHERE d.id = :departmentId".formatted(SELECT_QUERY))
-                .bind("departmentId", departmentId)
-                .fetch()
+    public Flux<Department> findAllById(Collection<Long> departmentIds) {
+        return this.client.sql("""
+                        SELECT id, name
+                        FROM departments
+                        WHERE id = ANY(:departmentIds)
+                        """)
+                .bind("departmentIds", departmentIds.toArray(Long[]::new))
+                .map((row, rowMetadata) -> Department.fromRow(row))
                 .all()
-                .bufferUntilChanged(result -> result.get("d_id"))
-                .flatMap(Department::fromRows)
-                .singleOrEmpty();
+                .transform(this.queryMetrics.flux("department.findAllById"));
+    }
+
+    @Override
+    public Mono<Department> findDepartmentWithManagerAndEmployees(Long departmentId) {
+        return this.findGraphs("WHERE d.id = :departmentId", Map.of("departmentId", departmentId))
+                .singleOrEmpty()
+                .transform(this.queryMetrics.mono("department.findDepartmentWithManagerAndEmployees"));
+    }
+
+    /**
+     * Esta clase no tiene caché: es la misma lectura que findDepartmentWithManagerAndEmployees.
+     */
+    @Override
+    public Mono<Department> findDepartmentWithManagerAndEmployeesUncached(Long departmentId) {
+        return this.findDepartmentWithManagerAndEmployees(departmentId);
+    }
+
+    /**
+     * Arma los grafos de todos los ids con la estrategia de lectura configurada y un solo arreglo en ANY(:departmentIds).
+     * Omite los ids que no existen y devuelve los grafos ordenados por id.
+     */
+    @Override
+    public Flux<Department> findDepartmentsWithManagerAndEmployees(Collection<Long> departmentIds) {
+        return this.findGraphs("WHERE d.id = ANY(:departmentIds)", Map.of("departmentIds", departmentIds.toArray(Long[]::new)))
+                .transform(this.queryMetrics.flux("department.findDepartmentsWithManagerAndEmployees"));
     }
 
     @Override
     public Mono<Department> findByName(String name) {
-        return this.client.sql("%s WHERE d.name = :name".formatted(SELECT_QUERY))
-                .bind("name", name)
-                .fetch()
+        return this.findGraphs("WHERE d.name = :name", Map.of("name", name))
+                .singleOrEmpty()
+                .transform(this.queryMetrics.mono("department.findByName"));
+    }
+
+    @Override
+    public Flux<Employee> findEmployeePage(Long departmentId, Boolean isFullTime, long afterId, int size) {
+        return this.findDepartmentEmployees(departmentId, isFullTime, afterId, size, NO_FETCH_SIZE)
+                .transform(this.queryMetrics.flux("department.findEmployeePage"));
+    }
+
+    @Override
+    public Flux<Employee> streamEmployees(Long departmentId, Boolean isFullTime, int fetchSize) {
+        return this.findDepartmentEmployees(departmentId, isFullTime, 0L, null, fetchSize)
+                .transform(this.queryMetrics.flux("department.streamEmployees"));
+    }
+
+    /**
+     * Lee solo department_employees y employees, con el filtro de jornada en SQL y en el orden de pk_de
+     * (department_id, employee_id), de modo que el keyset y el LIMIT recorren el índice sin ordenar.
+     */
+    private Flux<Employee> findDepartmentEmployees(Long departmentId, Boolean isFullTime, long afterId, Integer size, int fetchSize) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("departmentId", departmentId);
+        parameters.put("afterId", afterId);
+        if (isFullTime != null) {
+            parameters.put("isFullTime", isFullTime);
+        }
+        if (size != null) {
+            parameters.put("size", size);
+        }
+
+        String sql = """
+                SELECT e.id, e.first_name, e.last_name, e.position, e.is_full_time
+                FROM department_employees AS de
+                    INNER JOIN employees AS e ON(de.employee_id = e.id)
+                WHERE de.department_id = :departmentId AND de.employee_id > :afterId %s
+                ORDER BY de.employee_id
+                %s
+                """.formatted(isFullTime == null ? "" : "AND e.is_full_time = :isFullTime", size == null ? "" : "LIMIT :size");
+        return this.prepare(sql, parameters, fetchSize)
+                .map((row, rowMetadata) -> Employee.fromRow(row, 0))
+                .all();
+    }
+
+    private Flux<Department> findGraphs(String whereClause, Map<String, Object> parameters) {
+        return switch (this.properties.readStrategy()) {
+            case JOIN -> this.findJoinedGraphs(whereClause, parameters, NO_FETCH_SIZE);
+            case JSON_AGGREGATION -> this.findAggregatedGraphs(whereClause, parameters, NO_FETCH_SIZE);
+            case MULTI_QUERY -> this.findStitchedGraphs(whereClause, parameters);
+        };
+    }
+
+    private Flux<Department> findJoinedGraphs(String whereClause, Map<String, Object> parameters, int fetchSize) {
+        return Flux.deferContextual(context -> {
+            ServerTiming timing = ServerTiming.from(context);
+            return this.prepare("%s %s ORDER BY d.id".formatted(SELECT_QUERY, whereClause), parameters, fetchSize)
+                    .map(ServerTiming.mapping(timing, new JoinedRowMapper()))
+                    .all()
+                    .bufferUntilChanged(JoinedRow::department, (previous, current) -> previous == current)
+                    .map(ServerTiming.mapping(timing, DepartmentDaoImpl::toDepartment));
+        });
+    }
+
+    private static Department toDepartment(List<JoinedRow> rows) {
+        Department department = rows.getFirst().department();
+        for (JoinedRow row : rows) {
+            if (row.employee() != null) {
+                department.getEmployees().add(row.employee());
+            }
+        }
+        return department;
+    }
+
+    private Flux<Department> findAggregatedGraphs(String whereClause, Map<String, Object> parameters, int fetchSize) {
+        return Flux.deferContextual(context -> this.prepare("%s %s ORDER BY d.id".formatted(JSON_SELECT_QUERY, whereClause), parameters, fetchSize)
+                .map((row, rowMetadata) -> row.get("department", String.class))
                 .all()
-                .bufferUntilChanged(result -> result.get("d_id"))
-                .flatMap(Department::fromRows)
-                .singleOrEmpty();
+                .map(ServerTiming.mapping(ServerTiming.from(context), this::readDepartment)));
+    }
+
+    private Flux<Department> findStitchedGraphs(String whereClause, Map<String, Object> parameters) {
+        return Flux.deferContextual(context -> {
+            ServerTiming timing = ServerTiming.from(context);
+            Mono<List<Department>> departments = this.bindAll(this.client.sql("SELECT d.id, d.name FROM departments AS d %s ORDER BY d.id".formatted(whereClause)), parameters)
+                    .map(ServerTiming.mapping(timing, (Row row, RowMetadata rowMetadata) -> Department.fromRow(row)))
+                    .all()
+                    .collectList();
+            Mono<LongObjectMap<Employee>> managers = this.findMemberRows(MANAGER_LINKS_QUERY, "dm", whereClause, parameters, timing)
+                    .collect(LongObjectMap::new, (map, memberRow) -> map.put(memberRow.departmentId(), memberRow.employee()));
+            Mono<LongObjectMap<List<Employee>>> employees = this.findMemberRows(EMPLOYEE_LINKS_QUERY, "de", whereClause, parameters, timing)
+                    .collect(LongObjectMap::new, (map, memberRow) -> map.computeIfAbsent(memberRow.departmentId(), departmentId -> new ArrayList<>())
+                            .add(memberRow.employee()));
+
+            return Mono.zip(departments, managers, employees)
+                    .flatMapIterable(ServerTiming.mapping(timing, DepartmentDaoImpl::stitch));
+        });
+    }
+
+    private static List<Department> stitch(Tuple3<List<Department>, LongObjectMap<Employee>, LongObjectMap<List<Employee>>> tuple) {
+        for (Department department : tuple.getT1()) {
+            List<Employee> departmentEmployees = tuple.getT3().get(department.getId());
+            department.setManager(tuple.getT2().get(department.getId()));
+            department.setEmployees(departmentEmployees == null ? new ArrayList<>() : departmentEmployees);
+        }
+        return tuple.getT1();
+    }
+
+    private Flux<MemberRow> findMemberRows(String query, String linkAlias, String whereClause, Map<String, Object> parameters,
+                                           ServerTiming timing) {
+        String sql = whereClause.isEmpty() ? query : "%s INNER JOIN departments AS d ON(%s.department_id = d.id) %s"
+                .formatted(query, linkAlias, whereClause);
+        return this.bindAll(this.client.sql(sql), parameters)
+                .map(ServerTiming.mapping(timing, (Row row, RowMetadata rowMetadata) -> new MemberRow(row.get(0, Long.class), Employee.fromRow(row, 1))))
+                .all();
+    }
+
+    private Department readDepartment(String json) {
+        try {
+            return this.objectMapper.readValue(json, Department.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer el departamento agregado por Postgres", e);
+        }
+    }
+
+    private DatabaseClient.GenericExecuteSpec prepare(String sql, Map<String, Object> parameters, int fetchSize) {
+        DatabaseClient.GenericExecuteSpec spec = this.bindAll(this.client.sql(sql), parameters);
+        if (fetchSize == NO_FETCH_SIZE) {
+            return spec;
+        }
+        return spec.filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)));
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindAll(DatabaseClient.GenericExecuteSpec spec, Map<String, Object> parameters) {
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec;
+    }
+
+    /**
+     * Crea un departamento sin manager ni empleados en una sola sentencia. Si el nombre ya existe, UNIQUE(name)
+     * descarta la fila y el resultado queda vacío; así la comprobación no compite con otra creación concurrente.
+     */
+    @Override
+    public Mono<Department> insertIfAbsent(String name) {
+        return this.client.sql("""
+                        INSERT INTO departments(name)
+                        VALUES(:name)
+                        ON CONFLICT (name) DO NOTHING
+                        RETURNING id, name
+                        """)
+                .bind("name", name)
+                .map((row, rowMetadata) -> Department.fromRow(row))
+                .first()
+                .transform(this.queryMetrics.mono("department.insertIfAbsent"));
     }
 
     @Override
     public Mono<Department> save(Department department) {
-        return this.saveDepartment(department)
-                .flatMap(this::saveManager)
-                .flatMap(this::saveEmployees)
-                .flatMap(this::deleteDepartmentManager)
-                .flatMap(this::saveDepartmentManager)
-                .flatMap(this::deleteDepartmentEmployees)
-                .flatMap(this::saveDepartmentEmployees);
+        return switch (this.properties.writeStrategy()) {
+            case STATEMENT_CHAIN -> this.saveDepartment(department)
+                    .flatMap(this::saveManager)
+                    .flatMap(this::saveEmployees)
+                    .flatMap(this::syncDepartmentManager)
+                    .flatMap(this::syncDepartmentEmployees);
+            case SINGLE_STATEMENT -> this.saveGraph(department);
+            case FUNCTION -> this.saveMembers(department)
+                    .flatMap(this::saveGraphWithFunction);
+        };
+    }
+
+    /**
+     * Agrega y quita empleados del departamento en una sola sentencia que toca solo esos vínculos. Un empleado
+     * de otro departamento se mueve con ON CONFLICT sobre uk_employee_id_de; los que ya eran miembros no se
+     * reescriben. El departamento se bloquea con FOR KEY SHARE para que no se borre a mitad del cambio. Devuelve
+     * vacío si el departamento no existe; los ids a agregar que no existen se informan en missingEmployeeIds.
+     * Un mismo id no debe venir en ambas listas: las dos CTEs no ven los cambios de la otra.
+     */
+    @Override
+    public Mono<MembershipChange> changeEmployees(Long departmentId, Collection<Long> addIds, Collection<Long> removeIds) {
+        return this.client.sql("""
+                        WITH department AS (
+                            SELECT id FROM departments WHERE id = :departmentId FOR KEY SHARE
+                        ), added AS (
+                            INSERT INTO department_employees(department_id, employee_id)
+                            SELECT d.id, e.id
+                            FROM department AS d
+                                INNER JOIN employees AS e ON(e.id = ANY(:addIds))
+                            ON CONFLICT ON CONSTRAINT uk_employee_id_de DO UPDATE SET department_id = EXCLUDED.department_id
+                                WHERE department_employees.department_id <> EXCLUDED.department_id
+                            RETURNING employee_id
+                        ), removed AS (
+                            DELETE FROM department_employees AS de
+                            USING department AS d
+                            WHERE de.department_id = d.id AND de.employee_id = ANY(:removeIds)
+                            RETURNING de.employee_id
+                        )
+                        SELECT d.id,
+                                ARRAY(SELECT employee_id FROM added) AS added_ids,
+                                ARRAY(SELECT employee_id FROM removed) AS removed_ids,
+                                ARRAY(SELECT ids.id
+                                      FROM unnest(CAST(:addIds AS BIGINT[])) AS ids(id)
+                                      WHERE NOT EXISTS(SELECT 1 FROM employees AS e WHERE e.id = ids.id)) AS missing_ids
+                        FROM department AS d
+                        """)
+                .bind("departmentId", departmentId)
+                .bind("addIds", addIds.toArray(Long[]::new))
+                .bind("removeIds", removeIds.toArray(Long[]::new))
+                .map((row, rowMetadata) -> new MembershipChange(row.get("id", Long.class),
+                        List.of(row.get("added_ids", Long[].class)),
+                        List.of(row.get("removed_ids", Long[].class)),
+                        List.of(row.get("missing_ids", Long[].class))))
+                .one()
+                .transform(this.queryMetrics.mono("department.changeEmployees"));
     }
 
+    /**
+     * Deja al empleado como gerente del departamento. Como el vínculo puede chocar a la vez con uk_department_id_dm
+     * (el gerente anterior) y con uk_employee_id_dm (el departamento que el empleado gestionaba), primero se borran
+     * esos dos vínculos y luego se inserta el nuevo, en dos sentencias dentro de la transacción del llamador. La
+     * primera comprueba además que existan el departamento y el empleado. Devuelve vacío si el departamento no
+     * existe; un empleado inexistente se informa en missingEmployeeIds sin escribir nada.
+     */
     @Override
-    public Mono<Void> delete(Department department) {
-        return this.deleteDepartmentManager(department)
-                .flatMap(this::deleteDepartmentEmployees)
-                .flatMap(this::deleteDepartment)
-                .then();
+    public Mono<MembershipChange> assignManager(Long departmentId, Long employeeId) {
+        final String DELETE_QUERY = """
+                WITH department AS (
+                    SELECT id FROM departments WHERE id = :departmentId FOR KEY SHARE
+                ), employee AS (
+                    SELECT id FROM employees WHERE id = :employeeId FOR KEY SHARE
+                ), deleted AS (
+                    DELETE FROM department_managers AS dm
+                    USING department AS d, employee AS e
+                    WHERE (dm.department_id = d.id OR dm.employee_id = e.id)
+                        AND NOT (dm.department_id = d.id AND dm.employee_id = e.id)
+                    RETURNING dm.department_id, dm.employee_id
+                )
+                SELECT ARRAY(SELECT employee_id FROM deleted WHERE department_id = :departmentId) AS removed_ids,
+                        EXISTS(SELECT 1 FROM employee) AS employee_found
+                FROM department
+                """;
+        final String INSERT_QUERY = """
+                INSERT INTO department_managers(department_id, employee_id)
+                SELECT :departmentId, :employeeId
+                WHERE NOT EXISTS(SELECT 1
+                                 FROM department_managers
+                                 WHERE department_id = :departmentId AND employee_id = :employeeId)
+                RETURNING employee_id
+                """;
+
+        return this.client.sql(DELETE_QUERY)
+                .bind("departmentId", departmentId)
+                .bind("employeeId", employeeId)
+                .map((row, rowMetadata) -> new MembershipChange(departmentId,
+                        List.of(),
+                        List.of(row.get("removed_ids", Long[].class)),
+                        Boolean.TRUE.equals(row.get("employee_found", Boolean.class)) ? List.of() : List.of(employeeId)))
+                .one()
+                .transform(this.queryMetrics.mono("department.assignManager.delete"))
+                .flatMap(change -> {
+                    if (!change.missingEmployeeIds().isEmpty()) {
+                        return Mono.just(change);
+                    }
+                    return this.client.sql(INSERT_QUERY)
+                            .bind("departmentId", departmentId)
+                            .bind("employeeId", employeeId)
+                            .map((row, rowMetadata) -> row.get("employee_id", Long.class))
+                            .all()
+                            .transform(this.queryMetrics.flux("department.assignManager.insert"))
+                            .collectList()
+                            .map(added -> new MembershipChange(departmentId, added, change.removed(), List.of()));
+                });
+    }
+
+    /**
+     * Borra el departamento y sus vínculos en una sola sentencia, sin leer antes el grafo: el costo no depende de
+     * cuántos empleados tenga. Todas las estrategias de escritura usan esta misma sentencia. Devuelve el id
+     * borrado, o vacío si el departamento no existe.
+     */
+    @Override
+    public Mono<Long> deleteById(Long departmentId) {
+        return this.client.sql("""
+                        WITH deleted_manager AS (
+                            DELETE FROM department_managers WHERE department_id = :departmentId
+                        ), deleted_employees AS (
+                            DELETE FROM department_employees WHERE department_id = :departmentId
+                        )
+                        DELETE FROM departments
+                        WHERE id = :departmentId
+                        RETURNING id
+                        """)
+                .bind("departmentId", departmentId)
+                .map((row, rowMetadata) -> row.get(0, Long.class))
+                .one()
+                .transform(this.queryMetrics.mono("department.deleteById"));
+    }
+
+    /**
+     * Guarda el departamento, su manager, sus empleados y la diferencia de vínculos con SAVE_GRAPH_QUERY. Los
+     * vínculos se borran antes de insertar porque cada INSERT cuenta las filas de su DELETE; el manager va
+     * primero en los arreglos de empleados ({@code managerCount} indica si está). Un id explícito solo se
+     * actualiza, nunca se inserta: si el departamento o algún empleado no existe la sentencia no escribe nada y
+     * se emite DepartmentNotFoundException o EmployeeNotFoundException.
+     */
+    private Mono<Department> saveGraph(Department department) {
+        List<Employee> members = membersOf(department);
+        int managerCount = members.size() - department.getEmployees().size();
+
+        DatabaseClient.GenericExecuteSpec spec = this.client.sql(SAVE_GRAPH_QUERY);
+        spec = department.getId() == null ?
+                spec.bindNull("departmentId", Long.class) :
+                spec.bind("departmentId", department.getId());
+        return spec.bind("name", department.getName())
+                .bind("managerCount", managerCount)
+                .bind("ids", members.stream().map(Employee::getId).toArray(Long[]::new))
+                .bind("firstNames", members.stream().map(Employee::getFirstName).toArray(String[]::new))
+                .bind("lastNames", members.stream().map(Employee::getLastName).toArray(String[]::new))
+                .bind("positions", members.stream().map(Employee::getPosition).toArray(String[]::new))
+                .bind("fullTimes", members.stream().map(Employee::isFullTime).toArray(Boolean[]::new))
+                .map((row, rowMetadata) -> new SavedGraph(row.get("department_id", Long.class),
+                        row.get("missing_member_id", Long.class),
+                        row.get("member_ids", Long[].class)))
+                .one()
+                .transform(this.queryMetrics.mono("department.save.graph"))
+                .flatMap(saved -> {
+                    if (saved.missingMemberId() != null) {
+                        return Mono.error(new EmployeeNotFoundException(saved.missingMemberId()));
+                    }
+                    if (saved.departmentId() == null) {
+                        return Mono.error(new DepartmentNotFoundException(department.getId()));
+                    }
+                    department.setId(saved.departmentId());
+                    for (int i = 0; i < members.size(); i++) {
+                        members.get(i).setId(saved.memberIds()[i]);
+                    }
+                    return Mono.just(department);
+                });
+    }
+
+    /**
+     * Upsert del departamento y conciliación de ambas tablas de vínculos con save_department_graph. Los
+     * empleados ya deben tener id, por eso se guardan antes con saveMembers. La función lanza no_data_found
+     * (SQLSTATE P0002) si el departamento no existe.
+     */
+    private Mono<Department> saveGraphWithFunction(Department department) {
+        DatabaseClient.GenericExecuteSpec spec = this.client.sql("SELECT save_department_graph(:departmentId, :name, :managerId, :employeeIds)");
+        spec = department.getId() == null ?
+                spec.bindNull("departmentId", Long.class) :
+                spec.bind("departmentId", department.getId());
+        spec = department.getManager().isEmpty() ?
+                spec.bindNull("managerId", Long.class) :
+                spec.bind("managerId", department.getManager().get().getId());
+        return spec.bind("name", department.getName())
+                .bind("employeeIds", department.getEmployees().stream().map(Employee::getId).toArray(Long[]::new))
+                .map((row, rowMetadata) -> row.get(0, Long.class))
+                .one()
+                .transform(this.queryMetrics.mono("department.save.function"))
+                .onErrorMap(DepartmentDaoImpl::isNoDataFound, exception -> new DepartmentNotFoundException(department.getId()))
+                .doOnNext(department::setId)
+                .thenReturn(department);
     }
 
     private Mono<Department> saveDepartment(Department department) {
@@ -114,9 +646,10 @@ public class DepartmentDaoImpl implements DepartmentDao {
                             """)
                     .bind("name", department.getName())
                     .filter((statement, next) -> statement.returnGeneratedValues("id").execute())
-                    .fetch()
+                    .map((row, rowMetadata) -> row.get(0, Long.class))
                     .first()
-                    .doOnNext(result -> department.setId(Long.parseLong(result.get("id").toString())))
+                    .transform(this.queryMetrics.mono("department.save.insertDepartment"))
+                    .doOnNext(department::setId)
                     .thenReturn(department);
         }
         return this.client.sql("""
@@ -127,90 +660,168 @@ public class DepartmentDaoImpl implements DepartmentDao {
                 .bind("name", department.getName())
                 .bind("departmentId", department.getId())
                 .fetch()
-                .first()
+                .rowsUpdated()
+                .transform(this.queryMetrics.rowsUpdated("department.save.updateDepartment"))
                 .thenReturn(department);
     }
 
+    /**
+     * Guarda el manager y los empleados con un solo upsertAll; asigna los ids sobre las mismas instancias.
+     */
+    private Mono<Department> saveMembers(Department department) {
+        return this.employeeRepository.upsertAll(membersOf(department))
+                .then(Mono.just(department));
+    }
+
     private Mono<Department> saveManager(Department department) {
         return Mono.justOrEmpty(department.getManager())
-                .flatMap(this.employeeRepository::save)
+                .flatMap(manager -> this.employeeRepository.upsertAll(List.of(manager)).next())
                 .doOnNext(department::setManager)
                 .thenReturn(department);
     }
 
     private Mono<Department> saveEmployees(Department department) {
-        return Flux.fromIterable(department.getEmployees())
-                .flatMap(this.employeeRepository::save)
+        return this.employeeRepository.upsertAll(department.getEmployees())
                 .collectList()
                 .doOnNext(department::setEmployees)
                 .thenReturn(department);
     }
 
-    private Mono<Department> deleteDepartmentManager(Department department) {
-        final String QUERY = """
-                DELETE FROM department_managers WHERE department_id = :departmentId OR employee_id = :managerId
-                """;
-        return Mono.just(department)
-                .flatMap(dep -> client.sql(QUERY)
-                        .bind("departmentId", dep.getId())
-                        .bind("managerId", dep.getManager().orElseGet(() -> Employee.builder().id(0L).build()).getId())
-                        .fetch()
-                        .rowsUpdated())
-                .thenReturn(department);
-    }
+    /**
+     * Deja en department_managers solo el vínculo (departamento, manager) actual: borra el del gerente anterior
+     * y el que el nuevo gerente tuviera en otro departamento, e inserta el vínculo solo si aún no existe. Si el
+     * gerente no cambió, ninguna de las dos sentencias escribe filas.
+     */
+    private Mono<Department> syncDepartmentManager(Department department) {
+        if (department.getManager().isEmpty()) {
+            return this.deleteDepartmentManager(department);
+        }
 
-    private Mono<Department> saveDepartmentManager(Department department) {
-        final String QUERY = """
+        final String DELETE_QUERY = """
+                DELETE FROM department_managers
+                WHERE (department_id = :departmentId OR employee_id = :managerId)
+                    AND NOT (department_id = :departmentId AND employee_id = :managerId)
+                """;
+        final String INSERT_QUERY = """
                 INSERT INTO department_managers(department_id, employee_id)
-                VALUES(:departmentId, :employeeId)
+                SELECT :departmentId, :managerId
+                WHERE NOT EXISTS(SELECT 1
+                                 FROM department_managers
+                                 WHERE department_id = :departmentId AND employee_id = :managerId)
                 """;
 
-        return Mono.justOrEmpty(department.getManager())
-                .flatMap(manager -> client.sql(QUERY)
-                        .bind("departmentId", department.getId())
-                        .bind("employeeId", manager.getId())
-                        .fetch()
-                        .rowsUpdated())
-                .thenReturn(department);
+        Long managerId = department.getManager().get().getId();
+        Mono<Long> removed = client.sql(DELETE_QUERY)
+                .bind("departmentId", department.getId())
+                .bind("managerId", managerId)
+                .fetch()
+                .rowsUpdated()
+                .transform(this.queryMetrics.rowsUpdated("department.save.syncManager.delete"));
+        Mono<Long> added = client.sql(INSERT_QUERY)
+                .bind("departmentId", department.getId())
+                .bind("managerId", managerId)
+                .fetch()
+                .rowsUpdated()
+                .transform(this.queryMetrics.rowsUpdated("department.save.syncManager.insert"));
+
+        return removed.then(added)
+                .then(Mono.just(department));
     }
 
-    private Mono<Department> deleteDepartmentEmployees(Department department) {
-        final String QUERY = """
-                DELETE FROM department_employees WHERE department_id = :departmentId OR employee_id IN (:employeeIds)
+    /**
+     * Aplica solo la diferencia entre los empleados guardados y los del departamento: borra los vínculos que ya
+     * no están y, por cada bloque de {@code linkChunkSize} empleados, inserta los que faltan con un único
+     * INSERT ... SELECT FROM unnest. Un empleado vinculado a otro departamento se mueve con ON CONFLICT sobre
+     * uk_employee_id_de. Si la membresía no cambió, ninguna sentencia escribe filas.
+     */
+    private Mono<Department> syncDepartmentEmployees(Department department) {
+        final String DELETE_QUERY = """
+                DELETE FROM department_employees
+                WHERE department_id = :departmentId AND employee_id <> ALL(:employeeIds)
+                """;
+        final String INSERT_QUERY = """
+                INSERT INTO department_employees(department_id, employee_id)
+                SELECT :departmentId, ids.employee_id
+                FROM unnest(:employeeIds) AS ids(employee_id)
+                WHERE NOT EXISTS(SELECT 1
+                                 FROM department_employees AS de
+                                 WHERE de.department_id = :departmentId AND de.employee_id = ids.employee_id)
+                ON CONFLICT ON CONSTRAINT uk_employee_id_de DO UPDATE SET department_id = EXCLUDED.department_id
                 """;
 
-        List<Long> employeeIds = department.getEmployees().stream().map(Employee::getId).toList();
+        Long[] employeeIds = department.getEmployees().stream().map(Employee::getId).toArray(Long[]::new);
 
-        return Mono.just(department)
-                .flatMap(dep -> client.sql(QUERY)
+        Mono<Long> removed = client.sql(DELETE_QUERY)
+                .bind("departmentId", department.getId())
+                .bind("employeeIds", employeeIds)
+                .fetch()
+                .rowsUpdated()
+                .transform(this.queryMetrics.rowsUpdated("department.save.syncEmployees.delete"));
+        Flux<Long> added = Flux.fromArray(employeeIds)
+                .buffer(this.properties.linkChunkSize())
+                .concatMap(chunk -> client.sql(INSERT_QUERY)
                         .bind("departmentId", department.getId())
-                        .bind("employeeIds", employeeIds.isEmpty() ? List.of(0) : employeeIds)
+                        .bind("employeeIds", chunk.toArray(Long[]::new))
                         .fetch()
-                        .rowsUpdated())
+                        .rowsUpdated()
+                        .transform(this.queryMetrics.rowsUpdated("department.save.syncEmployees.insert")));
+
+        return removed.thenMany(added)
+                .then(Mono.just(department));
+    }
+
+    private Mono<Department> deleteDepartmentManager(Department department) {
+        return this.client.sql("DELETE FROM department_managers WHERE department_id = :departmentId")
+                .bind("departmentId", department.getId())
+                .fetch()
+                .rowsUpdated()
+                .transform(this.queryMetrics.rowsUpdated("department.save.deleteManager"))
                 .thenReturn(department);
     }
 
-    private Mono<Department> saveDepartmentEmployees(Department department) {
-        final String QUERY = """
-                INSERT INTO department_employees(department_id, employee_id)
-                VALUES(:departmentId, :employeeId)
-                """;
+    /**
+     * El manager va primero, seguido de los empleados.
+     */
+    private static List<Employee> membersOf(Department department) {
+        List<Employee> members = new ArrayList<>(department.getEmployees().size() + 1);
+        department.getManager().ifPresent(members::add);
+        members.addAll(department.getEmployees());
+        return members;
+    }
 
-        return Flux.fromIterable(department.getEmployees())
-                .flatMap(employee -> client.sql(QUERY)
-                        .bind("departmentId", department.getId())
-                        .bind("employeeId", employee.getId())
-                        .fetch()
-                        .rowsUpdated())
-                .collectList()
-                .thenReturn(department);
+    private static boolean isNoDataFound(Throwable exception) {
+        return NestedExceptionUtils.getMostSpecificCause(exception) instanceof R2dbcException r2dbcException &&
+               "P0002".equals(r2dbcException.getSqlState());
     }
 
-    private Mono<Void> deleteDepartment(Department department) {
-        return this.client.sql("DELETE FROM departments WHERE id = :departmentId")
-                .bind("departmentId", department.getId())
-                .fetch()
-                .first()
-                .then();
+    private record MemberRow(long departmentId, Employee employee) {
+    }
+
+    private record SavedGraph(Long departmentId, Long missingMemberId, Long[] memberIds) {
+    }
+
+    /**
+     * Fila del JOIN ya tipada: todas las filas de un mismo departamento comparten la instancia de Department.
+     */
+    private record JoinedRow(Department department, Employee employee) {
+    }
+
+    /**
+     * Lee las columnas de SELECT_QUERY por posición: 0-1 departamento, 2-6 manager y 7-11 empleado. El
+     * departamento y su manager solo se leen en la primera fila de cada grupo; se crea uno por suscripción.
+     */
+    private static final class JoinedRowMapper implements BiFunction<Row, RowMetadata, JoinedRow> {
+
+        private Department current;
+
+        @Override
+        public JoinedRow apply(Row row, RowMetadata rowMetadata) {
+            Long departmentId = row.get(0, Long.class);
+            if (this.current == null || !this.current.getId().equals(departmentId)) {
+                this.current = Department.fromRow(row);
+                this.current.setManager(Employee.fromRow(row, 2));
+            }
+            return new JoinedRow(this.current, Employee.fromRow(row, 7));
+        }
     }
 }
@@ -0,0 +1,7 @@
+package dev.magadiflo.app.exception;
+
+public class InvalidBatchRequestException extends RuntimeException {
+    public InvalidBatchRequestException(int maxSize) {
+        super("La consulta por ids necesita entre 1 y %d ids distintos y no nulos".formatted(maxSize));
+    }
+}
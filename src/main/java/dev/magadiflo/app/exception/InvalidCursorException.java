@@ -0,0 +1,7 @@
+package dev.magadiflo.app.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super("El cursor de paginación %s no es válido".formatted(cursor));
+    }
+}
@@ -0,0 +1,7 @@
+package dev.magadiflo.app.exception;
+
+public class InvalidMembershipRequestException extends RuntimeException {
+    public InvalidMembershipRequestException(int maxChanges) {
+        super("El cambio de membresía necesita entre 1 y %d ids distintos y un empleado no puede agregarse y quitarse a la vez".formatted(maxChanges));
+    }
+}
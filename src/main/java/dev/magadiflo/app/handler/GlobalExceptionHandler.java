@@ -3,6 +3,9 @@ package dev.magadiflo.app.handler;
 import dev.magadiflo.app.exception.DepartmentAlreadyExistsException;
 import dev.magadiflo.app.exception.DepartmentNotFoundException;
 import dev.magadiflo.app.exception.EmployeeNotFoundException;
+import dev.magadiflo.app.exception.InvalidBatchRequestException;
+import dev.magadiflo.app.exception.InvalidCursorException;
+import dev.magadiflo.app.exception.InvalidMembershipRequestException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.HttpStatus;
@@ -36,6 +39,27 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response));
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleInvalidCursorException(Exception exception) {
+        log.debug("handleInvalidCursorException:: {}", exception.getMessage());
+        ErrorResponse response = new ErrorResponse(Map.of("message", exception.getMessage()));
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response));
+    }
+
+    @ExceptionHandler(InvalidBatchRequestException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleInvalidBatchRequestException(Exception exception) {
+        log.debug("handleInvalidBatchRequestException:: {}", exception.getMessage());
+        ErrorResponse response = new ErrorResponse(Map.of("message", exception.getMessage()));
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response));
+    }
+
+    @ExceptionHandler(InvalidMembershipRequestException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleInvalidMembershipRequestException(Exception exception) {
+        log.debug("handleInvalidMembershipRequestException:: {}", exception.getMessage());
+        ErrorResponse response = new ErrorResponse(Map.of("message", exception.getMessage()));
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response));
+    }
+
     @ExceptionHandler(WebExchangeBindException.class)
     public ResponseEntity<ErrorResponse> handleException(WebExchangeBindException exception) {
         log.debug("webExchangeBindException:: {}", exception.getMessage());
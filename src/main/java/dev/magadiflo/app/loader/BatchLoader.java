@@ -0,0 +1,104 @@
+package dev.magadiflo.app.loader;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Agrupa las lecturas por clave que llegan dentro de una ventana de tiempo, o hasta juntar maxBatchSize claves,
+ * y las resuelve con una sola consulta (por ejemplo WHERE id = ANY(:ids)). Cada llamador recibe el valor de su
+ * clave, o vacío si la consulta no la devolvió; un error de la consulta llega a todos los llamadores del lote.
+ * Como en SingleFlight, la consulta corre con un Context vacío, fuera de la transacción de quien abrió el lote,
+ * y cancelar una espera no cancela el lote. Publica el histograma batch.loader.size con el tamaño de cada lote.
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<List<K>, Flux<V>> batchFunction;
+    private final Function<V, K> keyFunction;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Scheduler scheduler = Schedulers.parallel();
+    private final DistributionSummary batchSizes;
+    private Map<K, Sinks.One<V>> pending;
+
+    public BatchLoader(String name, Function<List<K>, Flux<V>> batchFunction, Function<V, K> keyFunction,
+                       Duration window, int maxBatchSize, MeterRegistry meterRegistry) {
+        this.batchFunction = batchFunction;
+        this.keyFunction = keyFunction;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("batch.loader.size")
+                .description("Claves distintas resueltas por cada consulta agrupada")
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Mono<V> load(K key) {
+        return Mono.defer(() -> {
+            Sinks.One<V> sink;
+            Map<K, Sinks.One<V>> opened = null;
+            Map<K, Sinks.One<V>> full = null;
+            synchronized (this) {
+                if (this.pending == null) {
+                    this.pending = new LinkedHashMap<>();
+                    opened = this.pending;
+                }
+                sink = this.pending.computeIfAbsent(key, k -> Sinks.one());
+                if (this.pending.size() >= this.maxBatchSize) {
+                    full = this.pending;
+                    this.pending = null;
+                }
+            }
+
+            if (full != null) {
+                this.dispatch(full);
+            } else if (opened != null) {
+                Map<K, Sinks.One<V>> batch = opened;
+                this.scheduler.schedule(() -> this.flush(batch), this.window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            return sink.asMono();
+        });
+    }
+
+    /**
+     * Despacha el lote al vencer su ventana, salvo que ya se haya despachado por llegar a maxBatchSize.
+     */
+    private void flush(Map<K, Sinks.One<V>> batch) {
+        synchronized (this) {
+            if (this.pending != batch) {
+                return;
+            }
+            this.pending = null;
+        }
+        this.dispatch(batch);
+    }
+
+    private void dispatch(Map<K, Sinks.One<V>> batch) {
+        this.batchSizes.record(batch.size());
+        Mono.just(new ArrayList<>(batch.keySet()))
+                .flatMapMany(this.batchFunction)
+                .contextWrite(context -> Context.empty())
+                .subscribe(value -> {
+                            Sinks.One<V> sink = batch.get(this.keyFunction.apply(value));
+                            if (sink != null) {
+                                sink.tryEmitValue(value);
+                            }
+                        },
+                        exception -> batch.values().forEach(sink -> sink.tryEmitError(exception)),
+                        () -> batch.values().forEach(Sinks.One::tryEmitEmpty));
+    }
+}
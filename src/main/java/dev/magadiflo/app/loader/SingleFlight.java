@@ -0,0 +1,102 @@
+package dev.magadiflo.app.loader;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Comparte una misma lectura en curso entre los llamadores concurrentes que piden la misma clave: el primero
+ * ejecuta la consulta y los demás esperan su resultado. Al terminar la consulta la clave se libera, así que
+ * no se guarda nada (no es una caché).
+ * Si un llamador cancela, los demás siguen esperando; solo cuando cancelan todos se cancela la consulta.
+ * La consulta compartida corre con un Context vacío, fuera de la transacción de quien la inició, para que
+ * ninguna cancelación o commit ajeno la afecte. Por eso solo debe usarse en lecturas fuera de escrituras.
+ * Publica single.flight.calls con result=executed (consultas ejecutadas) y result=coalesced (consultas ahorradas).
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("single.flight.calls")
+                .description("Lecturas concurrentes por clave, ejecutadas o resueltas con una consulta ya en curso")
+                .tag("name", name)
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("single.flight.calls")
+                .description("Lecturas concurrentes por clave, ejecutadas o resueltas con una consulta ya en curso")
+                .tag("name", name)
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+    }
+
+    public Mono<V> execute(K key, Function<K, Mono<V>> loader) {
+        return Mono.defer(() -> {
+            AtomicBoolean leader = new AtomicBoolean();
+            Flight<V> flight = this.inFlight.compute(key, (k, current) -> {
+                if (current == null) {
+                    leader.set(true);
+                    current = new Flight<>();
+                }
+                current.subscribers++;
+                return current;
+            });
+
+            if (leader.get()) {
+                this.executed.increment();
+                this.start(key, flight, loader);
+            } else {
+                this.coalesced.increment();
+            }
+            return flight.sink.asMono()
+                    .doOnCancel(() -> this.leave(key, flight));
+        });
+    }
+
+    private void start(K key, Flight<V> flight, Function<K, Mono<V>> loader) {
+        flight.upstream.update(Mono.defer(() -> loader.apply(key))
+                .contextWrite(context -> Context.empty())
+                .subscribe(value -> {
+                            this.inFlight.remove(key, flight);
+                            flight.sink.tryEmitValue(value);
+                        },
+                        exception -> {
+                            this.inFlight.remove(key, flight);
+                            flight.sink.tryEmitError(exception);
+                        },
+                        () -> {
+                            this.inFlight.remove(key, flight);
+                            flight.sink.tryEmitEmpty();
+                        }));
+    }
+
+    /**
+     * Los subscriptores se cuentan dentro de compute, así que nadie puede sumarse a una consulta que ya se canceló.
+     */
+    private void leave(K key, Flight<V> flight) {
+        this.inFlight.computeIfPresent(key, (k, current) -> {
+            if (current != flight || --current.subscribers > 0) {
+                return current;
+            }
+            current.upstream.dispose();
+            return null;
+        });
+    }
+
+    private static final class Flight<V> {
+        private final Sinks.One<V> sink = Sinks.one();
+        private final Disposable.Swap upstream = Disposables.swap();
+        private int subscribers;
+    }
+}
@@ -0,0 +1,164 @@
+package dev.magadiflo.app.metrics;
+
+import dev.magadiflo.app.timing.ServerTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Métricas por operación SQL con un nombre lógico estable (por ejemplo department.findById o
+ * department.save.syncEmployees.insert), que no cambia con el texto de la sentencia:
+ * <ul>
+ *     <li>db.query: histograma de latencia desde la suscripción hasta la última fila, con outcome=success|error|cancelled.
+ *     En los listados en streaming incluye el tiempo que el cliente tarda en pedir las filas.</li>
+ *     <li>db.query.rows: filas devueltas, o filas modificadas en las variantes rowsUpdated.</li>
+ *     <li>db.query.errors: errores por tipo de excepción.</li>
+ * </ul>
+ * Una cancelación después de recibir filas (next(), take()) cuenta como success. Si la petición HTTP se está
+ * midiendo, la latencia también se suma al ServerTiming del Context.
+ */
+@Component
+public class QueryMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, QueryMeters> meters = new ConcurrentHashMap<>();
+
+    public QueryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Function<Flux<T>, Flux<T>> flux(String name) {
+        QueryMeters queryMeters = this.meters(name);
+        return flux -> Flux.deferContextual(context -> {
+            Execution execution = new Execution(queryMeters, ServerTiming.from(context));
+            Flux<T> observed = flux.doOnNext(value -> execution.rows++)
+                    .doOnError(execution::failed);
+            if (execution.timing != null) {
+                observed = observed.doOnTerminate(execution::timed).doOnCancel(execution::timed);
+            }
+            return observed.doFinally(execution::finished);
+        });
+    }
+
+    public <T> Function<Mono<T>, Mono<T>> mono(String name) {
+        QueryMeters queryMeters = this.meters(name);
+        return mono -> Mono.deferContextual(context -> {
+            Execution execution = new Execution(queryMeters, ServerTiming.from(context));
+            Mono<T> observed = mono.doOnNext(value -> execution.rows = 1)
+                    .doOnError(execution::failed);
+            if (execution.timing != null) {
+                observed = observed.doOnTerminate(execution::timed).doOnCancel(execution::timed);
+            }
+            return observed.doFinally(execution::finished);
+        });
+    }
+
+    public Function<Mono<Long>, Mono<Long>> rowsUpdated(String name) {
+        QueryMeters queryMeters = this.meters(name);
+        return mono -> Mono.deferContextual(context -> {
+            Execution execution = new Execution(queryMeters, ServerTiming.from(context));
+            Mono<Long> observed = mono.doOnNext(rowsUpdated -> execution.rows = rowsUpdated)
+                    .doOnError(execution::failed);
+            if (execution.timing != null) {
+                observed = observed.doOnTerminate(execution::timed).doOnCancel(execution::timed);
+            }
+            return observed.doFinally(execution::finished);
+        });
+    }
+
+    private QueryMeters meters(String name) {
+        return this.meters.computeIfAbsent(name, key -> new QueryMeters(key, this.meterRegistry));
+    }
+
+    private static final class Execution {
+        private final QueryMeters meters;
+        private final ServerTiming timing;
+        private final long start = System.nanoTime();
+        private long rows;
+        private boolean timed;
+
+        private Execution(QueryMeters meters, ServerTiming timing) {
+            this.meters = meters;
+            this.timing = timing;
+        }
+
+        private void failed(Throwable exception) {
+            this.meters.error(exception);
+        }
+
+        /**
+         * Se llama antes de pasar la señal final hacia abajo: en doFinally la respuesta HTTP ya podría estar enviada.
+         * Un Mono puede terminar con su valor y recibir después la cancelación, por eso se suma una sola vez.
+         */
+        private void timed() {
+            if (!this.timed) {
+                this.timed = true;
+                this.timing.recordQuery(System.nanoTime() - this.start);
+            }
+        }
+
+        private void finished(SignalType signal) {
+            long elapsed = System.nanoTime() - this.start;
+            if (signal == SignalType.ON_ERROR) {
+                this.meters.error.record(elapsed, TimeUnit.NANOSECONDS);
+            } else if (signal == SignalType.CANCEL && this.rows == 0) {
+                this.meters.cancelled.record(elapsed, TimeUnit.NANOSECONDS);
+            } else {
+                this.meters.success.record(elapsed, TimeUnit.NANOSECONDS);
+                this.meters.rows.record(this.rows);
+            }
+        }
+    }
+
+    private static final class QueryMeters {
+        private final String name;
+        private final MeterRegistry meterRegistry;
+        private final Timer success;
+        private final Timer error;
+        private final Timer cancelled;
+        private final DistributionSummary rows;
+
+        private QueryMeters(String name, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.meterRegistry = meterRegistry;
+            this.success = timer(name, "success", meterRegistry);
+            this.error = timer(name, "error", meterRegistry);
+            this.cancelled = timer(name, "cancelled", meterRegistry);
+            this.rows = DistributionSummary.builder("db.query.rows")
+                    .description("Filas devueltas o modificadas por la operación SQL")
+                    .tag("name", name)
+                    .register(meterRegistry);
+        }
+
+        private void error(Throwable exception) {
+            Counter.builder("db.query.errors")
+                    .description("Operaciones SQL que terminaron en error")
+                    .tag("name", this.name)
+                    .tag("exception", exception.getClass().getSimpleName())
+                    .register(this.meterRegistry)
+                    .increment();
+        }
+
+        private static Timer timer(String name, String outcome, MeterRegistry meterRegistry) {
+            return Timer.builder("db.query")
+                    .description("Latencia de la operación SQL hasta su última fila")
+                    .tag("name", name)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(meterRegistry);
+        }
+    }
+}
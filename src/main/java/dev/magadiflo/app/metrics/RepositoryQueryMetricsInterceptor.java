@@ -0,0 +1,43 @@
+package dev.magadiflo.app.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registra en QueryMetrics cada método de un repositorio de Spring Data (consultas derivadas, CRUD y fragmentos
+ * propios) con el nombre {@code <prefijo>.<método>}, por ejemplo employee.findAllByPosition.
+ */
+public class RepositoryQueryMetricsInterceptor implements MethodInterceptor {
+
+    private final String prefix;
+    private final ObjectProvider<QueryMetrics> queryMetrics;
+
+    public RepositoryQueryMetricsInterceptor(String prefix, ObjectProvider<QueryMetrics> queryMetrics) {
+        this.prefix = prefix;
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        String name = this.prefix + "." + invocation.getMethod().getName();
+        if (result instanceof Flux<?> flux) {
+            return this.timed(name, flux);
+        }
+        if (result instanceof Mono<?> mono) {
+            return this.timed(name, mono);
+        }
+        return result;
+    }
+
+    private <T> Flux<T> timed(String name, Flux<T> flux) {
+        return flux.transform(this.queryMetrics.getObject().flux(name));
+    }
+
+    private <T> Mono<T> timed(String name, Mono<T> mono) {
+        return mono.transform(this.queryMetrics.getObject().mono(name));
+    }
+}
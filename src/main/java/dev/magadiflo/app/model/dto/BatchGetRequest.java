@@ -0,0 +1,10 @@
+package dev.magadiflo.app.model.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record BatchGetRequest(@NotEmpty
+                              List<@NotNull Long> ids) {
+}
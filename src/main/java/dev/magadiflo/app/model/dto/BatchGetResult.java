@@ -0,0 +1,49 @@
+package dev.magadiflo.app.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dev.magadiflo.app.exception.InvalidBatchRequestException;
+import reactor.core.publisher.Flux;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Resultado de una consulta por varios ids: un elemento por id pedido, en el orden de la petición. Los ids que
+ * no existen se informan con status NOT_FOUND y su mensaje en lugar de hacer fallar toda la consulta.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchGetResult<T>(Long id, Status status, T data, String message) {
+
+    public enum Status {
+        FOUND,
+        NOT_FOUND
+    }
+
+    /**
+     * Valida la petición y devuelve sus ids sin repetir, que es lo que se envía en el arreglo de ANY(:ids).
+     */
+    public static List<Long> distinctIds(List<Long> ids, int maxSize) {
+        if (ids == null || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidBatchRequestException(maxSize);
+        }
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        if (distinctIds.size() > maxSize) {
+            throw new InvalidBatchRequestException(maxSize);
+        }
+        return distinctIds;
+    }
+
+    public static <T> Flux<BatchGetResult<T>> inRequestOrder(List<Long> ids, Map<Long, T> found,
+                                                             Function<Long, String> notFoundMessage) {
+        return Flux.fromIterable(ids)
+                .map(id -> {
+                    T value = found.get(id);
+                    return value == null ?
+                            new BatchGetResult<T>(id, Status.NOT_FOUND, null, notFoundMessage.apply(id)) :
+                            new BatchGetResult<>(id, Status.FOUND, value, null);
+                });
+    }
+}
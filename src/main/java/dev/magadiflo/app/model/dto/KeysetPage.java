@@ -0,0 +1,49 @@
+package dev.magadiflo.app.model.dto;
+
+import dev.magadiflo.app.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página obtenida con paginación por clave ({@code WHERE id > :afterId ORDER BY id LIMIT :size}).
+ * El cursor es opaco para el cliente: codifica el último id entregado y es {@code null} en la última página.
+ */
+public record KeysetPage<T>(List<T> content, String nextCursor) {
+
+    private static final long FIRST_PAGE = 0L;
+
+    /**
+     * Construye la página a partir de hasta {@code size + 1} filas; la fila extra solo indica que hay más datos.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, Long> idExtractor) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, size);
+        return new KeysetPage<>(content, encodeCursor(idExtractor.apply(content.getLast())));
+    }
+
+    public static String encodeCursor(long afterId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(Long.toString(afterId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST_PAGE;
+        }
+        try {
+            long afterId = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (afterId < FIRST_PAGE) {
+                throw new InvalidCursorException(cursor);
+            }
+            return afterId;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package dev.magadiflo.app.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Vínculos que realmente cambiaron: los empleados que ya eran miembros no aparecen en added y los que no lo
+ * eran no aparecen en removed. missingEmployeeIds son los ids a agregar que no existen en employees.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record MembershipChange(Long departmentId,
+                               List<Long> added,
+                               List<Long> removed,
+                               List<Long> missingEmployeeIds) {
+}
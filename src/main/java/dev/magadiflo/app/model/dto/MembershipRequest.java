@@ -0,0 +1,18 @@
+package dev.magadiflo.app.model.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Cambio de membresía de un departamento: empleados a agregar (moviéndolos desde su departamento actual) y
+ * empleados a quitar. Cualquiera de las dos listas puede omitirse.
+ */
+public record MembershipRequest(List<@NotNull Long> add,
+                                List<@NotNull Long> remove) {
+
+    public MembershipRequest {
+        add = add == null ? List.of() : add;
+        remove = remove == null ? List.of() : remove;
+    }
+}
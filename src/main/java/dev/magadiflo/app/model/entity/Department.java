@@ -1,9 +1,9 @@
 package dev.magadiflo.app.model.entity;
 
+import io.r2dbc.spi.Row;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Table;
-import reactor.core.publisher.Mono;
 
 import java.util.*;
 
@@ -28,19 +28,11 @@ public class Department {
         return Optional.ofNullable(this.manager);
     }
 
-    public static Mono<Department> fromRows(List<Map<String, Object>> rows) {
-        Map<String, Object> firstRow = rows.getFirst();
-
-        Department department = Department.builder()
-                .id(Long.parseLong(firstRow.get("d_id").toString()))
-                .name(String.valueOf(firstRow.get("d_name")))
-                .manager(Employee.managerFromRow(firstRow))
-                .employees(rows.stream()
-                        .map(Employee::fromRow)
-                        .filter(Objects::nonNull)
-                        .toList())
-                .build();
-        return Mono.just(department);
+    /**
+     * Lee id y name por posición (columnas 0 y 1); el manager y los empleados quedan vacíos.
+     */
+    public static Department fromRow(Row row) {
+        return new Department(row.get(0, Long.class), row.get(1, String.class), null, new ArrayList<>());
     }
 
 }
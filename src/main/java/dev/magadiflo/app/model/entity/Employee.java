@@ -1,12 +1,11 @@
 package dev.magadiflo.app.model.entity;
 
+import io.r2dbc.spi.Row;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
-import java.util.Map;
-
 @ToString
 @AllArgsConstructor
 @NoArgsConstructor
@@ -23,27 +22,18 @@ public class Employee {
     @Column("is_full_time")
     private boolean fullTime;
 
-    public static Employee fromRow(Map<String, Object> row) {
-        if (row.get("e_id") == null) return null;
-
-        return Employee.builder()
-                .id(Long.parseLong(row.get("e_id").toString()))
-                .firstName((String) row.get("e_firstName"))
-                .lastName((String) row.get("e_lastName"))
-                .position((String) row.get("e_position"))
-                .fullTime((Boolean) row.get("e_isFullTime"))
-                .build();
-    }
-
-    public static Employee managerFromRow(Map<String, Object> row) {
-        if (row.get("m_id") == null) return null;
+    /**
+     * Lee un empleado por posición a partir de {@code firstColumn}, en el orden id, first_name, last_name,
+     * position, is_full_time. Devuelve null si el id es null (LEFT JOIN sin coincidencia).
+     */
+    public static Employee fromRow(Row row, int firstColumn) {
+        Long id = row.get(firstColumn, Long.class);
+        if (id == null) return null;
 
-        return Employee.builder()
-                .id(Long.parseLong(row.get("m_id").toString()))
-                .firstName((String) row.get("m_firstName"))
-                .lastName((String) row.get("m_lastName"))
-                .position((String) row.get("m_position"))
-                .fullTime((Boolean) row.get("m_isFullTime"))
-                .build();
+        return new Employee(id,
+                row.get(firstColumn + 1, String.class),
+                row.get(firstColumn + 2, String.class),
+                row.get(firstColumn + 3, String.class),
+                Boolean.TRUE.equals(row.get(firstColumn + 4, Boolean.class)));
     }
 }
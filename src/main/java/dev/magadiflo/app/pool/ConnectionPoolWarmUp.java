@@ -0,0 +1,30 @@
+package dev.magadiflo.app.pool;
+
+import dev.magadiflo.app.config.ConnectionPoolProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Abre las initial-size conexiones del pool al arrancar. Los ApplicationRunner corren antes de que la aplicación
+ * pase a ReadinessState.ACCEPTING_TRAFFIC, así que las primeras peticiones no pagan el handshake con Postgres.
+ * Si el pool no se llena dentro de warmUpTimeout el arranque falla.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConnectionPoolWarmUp implements ApplicationRunner {
+
+    private final TimedConnectionFactory connectionFactory;
+    private final ConnectionPoolProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer created = this.connectionFactory.unwrap()
+                .warmup()
+                .block(this.properties.warmUpTimeout());
+        log.info("Pool de conexiones precalentado: {} conexiones nuevas", created);
+    }
+}
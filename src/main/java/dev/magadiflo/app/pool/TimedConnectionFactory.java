@@ -0,0 +1,85 @@
+package dev.magadiflo.app.pool;
+
+import dev.magadiflo.app.timing.ServerTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide cuánto tarda cada adquisición de conexión del pool, desde la suscripción hasta recibir la conexión
+ * (o el error o la cancelación), en el histograma r2dbc.pool.acquire con outcome=success|error|cancelled.
+ * Con pending > 0 este tiempo es la espera en cola: es la señal para agrandar el pool o reducir lo que se
+ * retiene cada conexión. En las peticiones HTTP medidas, la espera también se suma al ServerTiming del Context.
+ */
+public class TimedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionPool>, Disposable {
+
+    private final ConnectionPool pool;
+    private final Timer success;
+    private final Timer error;
+    private final Timer cancelled;
+
+    public TimedConnectionFactory(String name, ConnectionPool pool, MeterRegistry meterRegistry) {
+        this.pool = pool;
+        this.success = acquireTimer(name, "success", meterRegistry);
+        this.error = acquireTimer(name, "error", meterRegistry);
+        this.cancelled = acquireTimer(name, "cancelled", meterRegistry);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            ServerTiming timing = ServerTiming.from(context);
+            long start = System.nanoTime();
+            Mono<Connection> connection = timing == null ? this.pool.create() :
+                    this.pool.create().doOnSuccess(acquired -> timing.recordAcquire(System.nanoTime() - start));
+            return connection
+                    .doFinally(signal -> this.timer(signal).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return this.pool.getMetadata();
+    }
+
+    @Override
+    public ConnectionPool unwrap() {
+        return this.pool;
+    }
+
+    @Override
+    public void dispose() {
+        this.pool.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return this.pool.isDisposed();
+    }
+
+    private Timer timer(SignalType signal) {
+        return switch (signal) {
+            case ON_ERROR -> this.error;
+            case CANCEL -> this.cancelled;
+            default -> this.success;
+        };
+    }
+
+    private static Timer acquireTimer(String name, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("r2dbc.pool.acquire")
+                .description("Tiempo hasta obtener una conexión del pool, incluida la espera en cola")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
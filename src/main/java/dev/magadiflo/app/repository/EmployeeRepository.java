@@ -1,10 +1,11 @@
 package dev.magadiflo.app.repository;
 
 import dev.magadiflo.app.model.entity.Employee;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Flux;
 
-public interface EmployeeRepository extends R2dbcRepository<Employee, Long> {
+public interface EmployeeRepository extends R2dbcRepository<Employee, Long>, EmployeeRepositoryCustom {
     Flux<Employee> findAllByPosition(String position);
 
     Flux<Employee> findAllByFullTime(boolean isFullTime);
@@ -12,4 +13,12 @@ public interface EmployeeRepository extends R2dbcRepository<Employee, Long> {
     Flux<Employee> findAllByPositionAndFullTime(String position, boolean isFullTime);
 
     Flux<Employee> findByFirstName(String firstName);
+
+    Flux<Employee> findAllByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    Flux<Employee> findAllByPositionAndIdGreaterThanOrderByIdAsc(String position, Long afterId, Limit limit);
+
+    Flux<Employee> findAllByFullTimeAndIdGreaterThanOrderByIdAsc(boolean isFullTime, Long afterId, Limit limit);
+
+    Flux<Employee> findAllByPositionAndFullTimeAndIdGreaterThanOrderByIdAsc(String position, boolean isFullTime, Long afterId, Limit limit);
 }
@@ -0,0 +1,42 @@
+package dev.magadiflo.app.repository;
+
+import dev.magadiflo.app.model.entity.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EmployeeRepositoryCustom {
+    /**
+     * Recorre la tabla de empleados con un cursor de Postgres de {@code fetchSize} filas, aplicando los
+     * filtros opcionales de puesto y jornada. Las filas se piden al servidor según la demanda del suscriptor.
+     */
+    Flux<Employee> streamAll(String position, Boolean isFullTime, int fetchSize);
+
+    /**
+     * Lee los empleados de todos los ids con una sola sentencia WHERE id = ANY(:ids), que se prepara igual sin
+     * importar cuántos ids lleguen. No garantiza orden y omite los ids que no existen.
+     */
+    Flux<Employee> findAllByIds(Collection<Long> ids);
+
+    /**
+     * Guarda todos los empleados con una sola sentencia sobre arreglos: los que tienen id se actualizan con
+     * UPDATE ... FROM unnest (si un id se repite gana la última aparición) y los que no tienen id se insertan con
+     * uno tomado de la secuencia de la tabla. Nunca inserta un id explícito: si alguno no existe no se escribe nada
+     * y se emite EmployeeNotFoundException. Se devuelven las mismas instancias, en el mismo orden, con el id asignado.
+     */
+    Flux<Employee> upsertAll(List<Employee> employees);
+
+    /**
+     * Actualiza los datos del empleado con una sola sentencia UPDATE ... RETURNING, sin leerlo antes.
+     * Devuelve el empleado tal como quedó, o vacío si el id no existe.
+     */
+    Mono<Employee> updateById(Long id, Employee employee);
+
+    /**
+     * Elimina el empleado con una sola sentencia DELETE ... RETURNING id, sin leerlo antes.
+     * Devuelve el id eliminado, o vacío si no existe.
+     */
+    Mono<Long> deleteByIdReturningId(Long id);
+}
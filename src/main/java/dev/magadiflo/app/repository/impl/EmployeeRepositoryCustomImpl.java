@@ -0,0 +1,156 @@
+package dev.magadiflo.app.repository.impl;
+
+import dev.magadiflo.app.exception.EmployeeNotFoundException;
+import dev.magadiflo.app.model.entity.Employee;
+import dev.magadiflo.app.repository.EmployeeRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    private final DatabaseClient client;
+
+    @Override
+    public Flux<Employee> streamAll(String position, Boolean isFullTime, int fetchSize) {
+        List<String> conditions = new ArrayList<>();
+        if (position != null) {
+            conditions.add("position = :position");
+        }
+        if (isFullTime != null) {
+            conditions.add("is_full_time = :isFullTime");
+        }
+        String whereClause = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions);
+
+        DatabaseClient.GenericExecuteSpec spec = this.client.sql("""
+                SELECT id, first_name, last_name, position, is_full_time
+                FROM employees
+                %s
+                ORDER BY id
+                """.formatted(whereClause));
+        if (position != null) {
+            spec = spec.bind("position", position);
+        }
+        if (isFullTime != null) {
+            spec = spec.bind("isFullTime", isFullTime);
+        }
+
+        return spec.filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .map((row, rowMetadata) -> Employee.fromRow(row, 0))
+                .all();
+    }
+
+    @Override
+    public Flux<Employee> findAllByIds(Collection<Long> ids) {
+        return this.client.sql("""
+                        SELECT id, first_name, last_name, position, is_full_time
+                        FROM employees
+                        WHERE id = ANY(:ids)
+                        """)
+                .bind("ids", ids.toArray(Long[]::new))
+                .map((row, rowMetadata) -> Employee.fromRow(row, 0))
+                .all();
+    }
+
+    @Override
+    public Mono<Employee> updateById(Long id, Employee employee) {
+        return this.client.sql("""
+                        UPDATE employees
+                        SET first_name = :firstName,
+                            last_name = :lastName,
+                            position = :position,
+                            is_full_time = :isFullTime
+                        WHERE id = :id
+                        RETURNING id, first_name, last_name, position, is_full_time
+                        """)
+                .bind("id", id)
+                .bind("firstName", employee.getFirstName())
+                .bind("lastName", employee.getLastName())
+                .bind("position", employee.getPosition())
+                .bind("isFullTime", employee.isFullTime())
+                .map((row, rowMetadata) -> Employee.fromRow(row, 0))
+                .one();
+    }
+
+    @Override
+    public Mono<Long> deleteByIdReturningId(Long id) {
+        return this.client.sql("DELETE FROM employees WHERE id = :id RETURNING id")
+                .bind("id", id)
+                .map((row, rowMetadata) -> row.get(0, Long.class))
+                .one();
+    }
+
+    @Override
+    public Flux<Employee> upsertAll(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return Flux.empty();
+        }
+
+        Flux<SavedId> ids = this.client.sql("""
+                        WITH input AS MATERIALIZED (
+                            SELECT i.id,
+                                    CASE WHEN i.id IS NULL THEN nextval(pg_get_serial_sequence('employees', 'id')) END AS new_id,
+                                    i.first_name,
+                                    i.last_name,
+                                    i.position,
+                                    i.is_full_time,
+                                    i.ordinality
+                            FROM unnest(:ids, :firstNames, :lastNames, :positions, :fullTimes)
+                                WITH ORDINALITY AS i(id, first_name, last_name, position, is_full_time, ordinality)
+                        ), missing AS (
+                            SELECT i.id
+                            FROM input AS i
+                            WHERE i.id IS NOT NULL AND NOT EXISTS(SELECT 1 FROM employees AS e WHERE e.id = i.id)
+                        ), updated AS (
+                            UPDATE employees AS e
+                            SET first_name = i.first_name,
+                                last_name = i.last_name,
+                                position = i.position,
+                                is_full_time = i.is_full_time
+                            FROM (SELECT DISTINCT ON (id) *
+                                  FROM input
+                                  WHERE id IS NOT NULL
+                                  ORDER BY id, ordinality DESC) AS i
+                            WHERE e.id = i.id AND NOT EXISTS(SELECT 1 FROM missing)
+                            RETURNING e.id
+                        ), inserted AS (
+                            INSERT INTO employees(id, first_name, last_name, position, is_full_time)
+                            SELECT new_id, first_name, last_name, position, is_full_time
+                            FROM input
+                            WHERE new_id IS NOT NULL AND NOT EXISTS(SELECT 1 FROM missing)
+                        )
+                        SELECT COALESCE(i.id, i.new_id) AS id,
+                                i.id IS NULL OR NOT EXISTS(SELECT 1 FROM missing AS m WHERE m.id = i.id) AS saved
+                        FROM input AS i
+                        ORDER BY i.ordinality
+                        """)
+                .bind("ids", employees.stream().map(Employee::getId).toArray(Long[]::new))
+                .bind("firstNames", employees.stream().map(Employee::getFirstName).toArray(String[]::new))
+                .bind("lastNames", employees.stream().map(Employee::getLastName).toArray(String[]::new))
+                .bind("positions", employees.stream().map(Employee::getPosition).toArray(String[]::new))
+                .bind("fullTimes", employees.stream().map(Employee::isFullTime).toArray(Boolean[]::new))
+                .map((row, rowMetadata) -> new SavedId(row.get("id", Long.class), Boolean.TRUE.equals(row.get("saved", Boolean.class))))
+                .all()
+                .collectList()
+                .flatMapMany(savedIds -> savedIds.stream()
+                        .filter(savedId -> !savedId.saved())
+                        .findFirst()
+                        .<Flux<SavedId>>map(missing -> Flux.error(new EmployeeNotFoundException(missing.id())))
+                        .orElseGet(() -> Flux.fromIterable(savedIds)));
+
+        return Flux.fromIterable(employees)
+                .zipWith(ids, (employee, savedId) -> {
+                    employee.setId(savedId.id());
+                    return employee;
+                });
+    }
+
+    private record SavedId(Long id, boolean saved) {
+    }
+}
@@ -1,24 +1,44 @@
 package dev.magadiflo.app.service;
 
+import dev.magadiflo.app.model.dto.BatchGetResult;
 import dev.magadiflo.app.model.dto.CreateDepartmentRequest;
 import dev.magadiflo.app.model.dto.DepartmentResponse;
+import dev.magadiflo.app.model.dto.KeysetPage;
+import dev.magadiflo.app.model.dto.MembershipChange;
+import dev.magadiflo.app.model.dto.MembershipRequest;
 import dev.magadiflo.app.model.entity.Department;
 import dev.magadiflo.app.model.entity.Employee;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface DepartmentService {
     Flux<Department> getAllDepartments();
 
+    Mono<KeysetPage<Department>> getDepartments(String cursor, Integer size);
+
     Mono<DepartmentResponse> showDepartment(Long departmentId);
 
     Mono<Department> showDepartmentWithManagerAndEmployees(Long departmentId);
 
-    Flux<Employee> getEmployeesFromDepartment(Long departmentId, Boolean isFullTime);
+    Flux<BatchGetResult<Department>> getDepartmentsWithManagerAndEmployees(List<Long> departmentIds);
+
+    Flux<Employee> getAllEmployeesFromDepartment(Long departmentId, Boolean isFullTime);
+
+    Mono<KeysetPage<Employee>> getEmployeesFromDepartment(Long departmentId, Boolean isFullTime, String cursor, Integer size);
 
     Mono<Department> createDepartment(CreateDepartmentRequest departmentRequest);
 
     Mono<Department> updateDepartment(Long departmentId, Department department);
 
+    Mono<MembershipChange> changeEmployees(Long departmentId, MembershipRequest membershipRequest);
+
+    Mono<Void> addEmployee(Long departmentId, Long employeeId);
+
+    Mono<Void> removeEmployee(Long departmentId, Long employeeId);
+
+    Mono<Void> assignManager(Long departmentId, Long employeeId);
+
     Mono<Void> deleteDepartment(Long departmentId);
 }
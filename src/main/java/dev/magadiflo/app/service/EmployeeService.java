@@ -1,15 +1,23 @@
 package dev.magadiflo.app.service;
 
+import dev.magadiflo.app.model.dto.BatchGetResult;
 import dev.magadiflo.app.model.dto.CreateEmployeeRequest;
+import dev.magadiflo.app.model.dto.KeysetPage;
 import dev.magadiflo.app.model.entity.Employee;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface EmployeeService {
     Flux<Employee> getAllEmployees(String position, Boolean isFullTime);
 
+    Mono<KeysetPage<Employee>> getEmployees(String position, Boolean isFullTime, String cursor, Integer size);
+
     Mono<Employee> showEmployee(Long employeeId);
 
+    Flux<BatchGetResult<Employee>> getEmployeesById(List<Long> employeeIds);
+
     Mono<Employee> createEmployee(CreateEmployeeRequest employeeRequest);
 
     Mono<Employee> updateEmployee(Long employeeId, Employee employee);
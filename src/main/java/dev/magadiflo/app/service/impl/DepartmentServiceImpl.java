@@ -1,9 +1,18 @@
 package dev.magadiflo.app.service.impl;
 
+import dev.magadiflo.app.config.DepartmentMembershipProperties;
+import dev.magadiflo.app.config.PaginationProperties;
+import dev.magadiflo.app.config.StreamingProperties;
 import dev.magadiflo.app.exception.DepartmentAlreadyExistsException;
 import dev.magadiflo.app.exception.DepartmentNotFoundException;
+import dev.magadiflo.app.exception.EmployeeNotFoundException;
+import dev.magadiflo.app.exception.InvalidMembershipRequestException;
+import dev.magadiflo.app.model.dto.BatchGetResult;
 import dev.magadiflo.app.model.dto.CreateDepartmentRequest;
 import dev.magadiflo.app.model.dto.DepartmentResponse;
+import dev.magadiflo.app.model.dto.KeysetPage;
+import dev.magadiflo.app.model.dto.MembershipChange;
+import dev.magadiflo.app.model.dto.MembershipRequest;
 import dev.magadiflo.app.model.entity.Department;
 import dev.magadiflo.app.model.entity.Employee;
 import dev.magadiflo.app.dao.DepartmentDao;
@@ -15,19 +24,35 @@ import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.stream.Stream;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
-@Transactional(readOnly = true)
 public class DepartmentServiceImpl implements DepartmentService {
 
     private final DepartmentDao departmentDao;
+    private final PaginationProperties paginationProperties;
+    private final StreamingProperties streamingProperties;
+    private final DepartmentMembershipProperties membershipProperties;
 
     @Override
     public Flux<Department> getAllDepartments() {
-        return this.departmentDao.findAll();
+        int fetchSize = this.streamingProperties.fetchSize();
+        return this.departmentDao.streamAll(fetchSize)
+                .limitRate(fetchSize);
+    }
+
+    @Override
+    public Mono<KeysetPage<Department>> getDepartments(String cursor, Integer size) {
+        int pageSize = this.paginationProperties.resolveSize(size);
+        return Mono.fromSupplier(() -> KeysetPage.decodeCursor(cursor))
+                .flatMapMany(afterId -> this.departmentDao.findPage(afterId, pageSize + 1))
+                .collectList()
+                .map(departments -> KeysetPage.of(departments, pageSize, Department::getId));
     }
 
     @Override
@@ -47,36 +72,46 @@ public class DepartmentServiceImpl implements DepartmentService {
     }
 
     @Override
-    public Flux<Employee> getEmployeesFromDepartment(Long departmentId, Boolean isFullTime) {
-        if (isFullTime != null) {
-            return this.departmentDao.findDepartmentWithManagerAndEmployees(departmentId)
-                    .switchIfEmpty(Mono.error(new DepartmentNotFoundException(departmentId)))
-                    .flatMapMany(departmentDB -> {
-                        Stream<Employee> employeeStream = departmentDB.getEmployees().stream()
-                                .filter(employee -> employee.isFullTime() == isFullTime);
-                        return Flux.fromStream(employeeStream);
-                    });
-        }
+    public Flux<BatchGetResult<Department>> getDepartmentsWithManagerAndEmployees(List<Long> departmentIds) {
+        return Mono.fromSupplier(() -> BatchGetResult.distinctIds(departmentIds, this.paginationProperties.maxSize()))
+                .flatMap(ids -> this.departmentDao.findDepartmentsWithManagerAndEmployees(ids)
+                        .collectMap(Department::getId))
+                .flatMapMany(departments -> BatchGetResult.inRequestOrder(departmentIds, departments,
+                        departmentId -> new DepartmentNotFoundException(departmentId).getMessage()));
+    }
 
-        return this.departmentDao.findDepartmentWithManagerAndEmployees(departmentId)
+    @Override
+    public Flux<Employee> getAllEmployeesFromDepartment(Long departmentId, Boolean isFullTime) {
+        int fetchSize = this.streamingProperties.fetchSize();
+        return this.departmentDao.findById(departmentId)
                 .switchIfEmpty(Mono.error(new DepartmentNotFoundException(departmentId)))
-                .flatMapMany(department -> Flux.fromIterable(department.getEmployees()));
+                .thenMany(this.departmentDao.streamEmployees(departmentId, isFullTime, fetchSize))
+                .limitRate(fetchSize);
+    }
+
+    @Override
+    public Mono<KeysetPage<Employee>> getEmployeesFromDepartment(Long departmentId, Boolean isFullTime, String cursor, Integer size) {
+        int pageSize = this.paginationProperties.resolveSize(size);
+        return Mono.fromSupplier(() -> KeysetPage.decodeCursor(cursor))
+                .flatMap(afterId -> this.departmentDao.findById(departmentId)
+                        .switchIfEmpty(Mono.error(new DepartmentNotFoundException(departmentId)))
+                        .thenReturn(afterId))
+                .flatMapMany(afterId -> this.departmentDao.findEmployeePage(departmentId, isFullTime, afterId, pageSize + 1))
+                .collectList()
+                .map(employees -> KeysetPage.of(employees, pageSize, Employee::getId));
     }
 
     @Override
     @Transactional
     public Mono<Department> createDepartment(CreateDepartmentRequest departmentRequest) {
-        return this.departmentDao.findByName(departmentRequest.name())
-                .flatMap(departmentDB -> Mono.error(new DepartmentAlreadyExistsException(departmentRequest.name())))
-                .defaultIfEmpty(Department.builder().name(departmentRequest.name()).build())
-                .cast(Department.class)
-                .flatMap(this.departmentDao::save);
+        return this.departmentDao.insertIfAbsent(departmentRequest.name())
+                .switchIfEmpty(Mono.error(new DepartmentAlreadyExistsException(departmentRequest.name())));
     }
 
     @Override
     @Transactional
     public Mono<Department> updateDepartment(Long departmentId, Department department) {
-        return this.departmentDao.findDepartmentWithManagerAndEmployees(departmentId)
+        return this.departmentDao.findDepartmentWithManagerAndEmployeesUncached(departmentId)
                 .switchIfEmpty(Mono.error(new DepartmentNotFoundException(departmentId)))
                 .map(departmentDB -> {
                     departmentDB.setName(department.getName());
@@ -89,11 +124,64 @@ public class DepartmentServiceImpl implements DepartmentService {
                 .flatMap(this.departmentDao::save);
     }
 
+    /**
+     * Si algún empleado a agregar no existe, el error revierte la transacción completa y la membresía no cambia.
+     */
+    @Override
+    @Transactional
+    public Mono<MembershipChange> changeEmployees(Long departmentId, MembershipRequest membershipRequest) {
+        return Mono.fromCallable(() -> this.validate(membershipRequest))
+                .flatMap(request -> this.departmentDao.changeEmployees(departmentId, request.add(), request.remove()))
+                .switchIfEmpty(Mono.error(() -> new DepartmentNotFoundException(departmentId)))
+                .flatMap(this::failIfEmployeeIsMissing);
+    }
+
+    @Override
+    @Transactional
+    public Mono<Void> addEmployee(Long departmentId, Long employeeId) {
+        return this.changeEmployees(departmentId, new MembershipRequest(List.of(employeeId), List.of()))
+                .then();
+    }
+
+    @Override
+    @Transactional
+    public Mono<Void> removeEmployee(Long departmentId, Long employeeId) {
+        return this.changeEmployees(departmentId, new MembershipRequest(List.of(), List.of(employeeId)))
+                .then();
+    }
+
+    @Override
+    @Transactional
+    public Mono<Void> assignManager(Long departmentId, Long employeeId) {
+        return this.departmentDao.assignManager(departmentId, employeeId)
+                .switchIfEmpty(Mono.error(() -> new DepartmentNotFoundException(departmentId)))
+                .flatMap(this::failIfEmployeeIsMissing)
+                .then();
+    }
+
     @Override
     @Transactional
     public Mono<Void> deleteDepartment(Long departmentId) {
-        return this.departmentDao.findDepartmentWithManagerAndEmployees(departmentId)
+        return this.departmentDao.deleteById(departmentId)
                 .switchIfEmpty(Mono.error(new DepartmentNotFoundException(departmentId)))
-                .flatMap(this.departmentDao::delete);
+                .then();
+    }
+
+    private MembershipRequest validate(MembershipRequest membershipRequest) {
+        int maxChanges = this.membershipProperties.maxChanges();
+        Set<Long> add = new LinkedHashSet<>(membershipRequest.add());
+        Set<Long> remove = new LinkedHashSet<>(membershipRequest.remove());
+        int size = add.size() + remove.size();
+        if (size == 0 || size > maxChanges || add.contains(null) || remove.contains(null) || !Collections.disjoint(add, remove)) {
+            throw new InvalidMembershipRequestException(maxChanges);
+        }
+        return new MembershipRequest(List.copyOf(add), List.copyOf(remove));
+    }
+
+    private Mono<MembershipChange> failIfEmployeeIsMissing(MembershipChange change) {
+        if (change.missingEmployeeIds().isEmpty()) {
+            return Mono.just(change);
+        }
+        return Mono.error(new EmployeeNotFoundException(change.missingEmployeeIds().get(0)));
     }
 }
@@ -1,49 +1,90 @@
 package dev.magadiflo.app.service.impl;
 
+import dev.magadiflo.app.cache.DepartmentGraphCache;
+import dev.magadiflo.app.config.PaginationProperties;
+import dev.magadiflo.app.config.StreamingProperties;
 import dev.magadiflo.app.exception.EmployeeNotFoundException;
+import dev.magadiflo.app.loader.BatchLoader;
+import dev.magadiflo.app.loader.SingleFlight;
+import dev.magadiflo.app.model.dto.BatchGetResult;
 import dev.magadiflo.app.model.dto.CreateEmployeeRequest;
+import dev.magadiflo.app.model.dto.KeysetPage;
 import dev.magadiflo.app.model.entity.Employee;
 import dev.magadiflo.app.repository.EmployeeRepository;
 import dev.magadiflo.app.service.EmployeeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
+/**
+ * Las lecturas no abren transacción: cada consulta corre en autocommit y devuelve la conexión al pool al
+ * consumirse su última fila, sin BEGIN/COMMIT. Solo las escrituras se anotan con @Transactional.
+ */
 @Slf4j
 @RequiredArgsConstructor
 @Service
-@Transactional(readOnly = true)
 public class EmployeeServiceImpl implements EmployeeService {
 
     private final EmployeeRepository employeeRepository;
-
+    private final PaginationProperties paginationProperties;
+    private final StreamingProperties streamingProperties;
+    private final DepartmentGraphCache departmentGraphCache;
+    private final SingleFlight<Long, Employee> employeeSingleFlight;
+    private final BatchLoader<Long, Employee> employeeBatchLoader;
 
     @Override
     public Flux<Employee> getAllEmployees(String position, Boolean isFullTime) {
+        int fetchSize = this.streamingProperties.fetchSize();
+        return this.employeeRepository.streamAll(position, isFullTime, fetchSize)
+                .limitRate(fetchSize);
+    }
+
+    @Override
+    public Mono<KeysetPage<Employee>> getEmployees(String position, Boolean isFullTime, String cursor, Integer size) {
+        int pageSize = this.paginationProperties.resolveSize(size);
+        return Mono.fromSupplier(() -> KeysetPage.decodeCursor(cursor))
+                .flatMapMany(afterId -> this.getEmployeesAfter(position, isFullTime, afterId, Limit.of(pageSize + 1)))
+                .collectList()
+                .map(employees -> KeysetPage.of(employees, pageSize, Employee::getId));
+    }
+
+    private Flux<Employee> getEmployeesAfter(String position, Boolean isFullTime, Long afterId, Limit limit) {
         if (position == null && isFullTime == null) {
-            return this.employeeRepository.findAll();
+            return this.employeeRepository.findAllByIdGreaterThanOrderByIdAsc(afterId, limit);
         }
 
-        if (position != null & isFullTime != null) {
-            return this.employeeRepository.findAllByPositionAndFullTime(position, isFullTime);
+        if (position != null && isFullTime != null) {
+            return this.employeeRepository.findAllByPositionAndFullTimeAndIdGreaterThanOrderByIdAsc(position, isFullTime, afterId, limit);
         }
 
         if (position != null) {
-            return this.employeeRepository.findAllByPosition(position);
+            return this.employeeRepository.findAllByPositionAndIdGreaterThanOrderByIdAsc(position, afterId, limit);
         }
 
-        return this.employeeRepository.findAllByFullTime(isFullTime);
+        return this.employeeRepository.findAllByFullTimeAndIdGreaterThanOrderByIdAsc(isFullTime, afterId, limit);
     }
 
     @Override
     public Mono<Employee> showEmployee(Long employeeId) {
-        return this.employeeRepository.findById(employeeId)
+        return this.employeeSingleFlight.execute(employeeId, this.employeeBatchLoader::load)
                 .switchIfEmpty(Mono.error(new EmployeeNotFoundException(employeeId)));
     }
 
+    @Override
+    public Flux<BatchGetResult<Employee>> getEmployeesById(List<Long> employeeIds) {
+        return Mono.fromSupplier(() -> BatchGetResult.distinctIds(employeeIds, this.paginationProperties.maxSize()))
+                .flatMap(ids -> this.employeeRepository.findAllByIds(ids)
+                        .collectMap(Employee::getId))
+                .flatMapMany(employees -> BatchGetResult.inRequestOrder(employeeIds, employees,
+                        employeeId -> new EmployeeNotFoundException(employeeId).getMessage()));
+    }
+
     @Override
     @Transactional
     public Mono<Employee> createEmployee(CreateEmployeeRequest employeeRequest) {
@@ -59,24 +100,16 @@ public class EmployeeServiceImpl implements EmployeeService {
     @Override
     @Transactional
     public Mono<Employee> updateEmployee(Long employeeId, Employee employee) {
-        return this.employeeRepository.findById(employeeId)
+        return this.employeeRepository.updateById(employeeId, employee)
                 .switchIfEmpty(Mono.error(new EmployeeNotFoundException(employeeId)))
-                .map(employeeDB -> {
-                    employeeDB.setFirstName(employee.getFirstName());
-                    employeeDB.setLastName(employee.getLastName());
-                    employeeDB.setPosition(employee.getPosition());
-                    employeeDB.setFullTime(employee.isFullTime());
-                    return employeeDB;
-                })
-                .flatMap(this.employeeRepository::save);
+                .flatMap(employeeDB -> this.departmentGraphCache.evictEmployee(employeeId).thenReturn(employeeDB));
     }
 
     @Override
     @Transactional
     public Mono<Void> deleteEmployee(Long employeeId) {
-        return this.employeeRepository.findById(employeeId)
+        return this.employeeRepository.deleteByIdReturningId(employeeId)
                 .switchIfEmpty(Mono.error(new EmployeeNotFoundException(employeeId)))
-                .flatMap(this.employeeRepository::delete)
-                .then();
+                .flatMap(deletedId -> this.departmentGraphCache.evictEmployee(deletedId));
     }
 }
@@ -0,0 +1,94 @@
+package dev.magadiflo.app.timing;
+
+import reactor.util.context.ContextView;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Tiempos acumulados de una petición HTTP muestreada, que viajan en el Context de Reactor bajo la clave
+ * ServerTiming.class y se publican en la cabecera Server-Timing. Solo existe cuando ServerTimingFilter decide
+ * medir la petición: quien lee el Context y no lo encuentra no mide nada.
+ * Las consultas que se resuelven con SingleFlight o BatchLoader corren con un Context vacío y no se suman.
+ * Los tiempos de sentencias concurrentes se suman, así que db puede superar a total.
+ */
+public final class ServerTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    private final long start = System.nanoTime();
+    private final AtomicLong dbNanos = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong acquireNanos = new AtomicLong();
+    private final AtomicLong mappingNanos = new AtomicLong();
+    private final AtomicLong serializationNanos = new AtomicLong();
+
+    public static ServerTiming from(ContextView context) {
+        return context.getOrDefault(ServerTiming.class, null);
+    }
+
+    /**
+     * Devuelve el mismo mapper si la petición no se mide, para no agregar nada en ese caso.
+     */
+    public static <T, R> Function<T, R> mapping(ServerTiming timing, Function<T, R> mapper) {
+        if (timing == null) {
+            return mapper;
+        }
+        return value -> {
+            long start = System.nanoTime();
+            try {
+                return mapper.apply(value);
+            } finally {
+                timing.recordMapping(System.nanoTime() - start);
+            }
+        };
+    }
+
+    public static <T, U, R> BiFunction<T, U, R> mapping(ServerTiming timing, BiFunction<T, U, R> mapper) {
+        if (timing == null) {
+            return mapper;
+        }
+        return (first, second) -> {
+            long start = System.nanoTime();
+            try {
+                return mapper.apply(first, second);
+            } finally {
+                timing.recordMapping(System.nanoTime() - start);
+            }
+        };
+    }
+
+    public void recordQuery(long nanos) {
+        this.dbNanos.addAndGet(nanos);
+        this.queries.incrementAndGet();
+    }
+
+    public void recordAcquire(long nanos) {
+        this.acquireNanos.addAndGet(nanos);
+    }
+
+    public void recordMapping(long nanos) {
+        this.mappingNanos.addAndGet(nanos);
+    }
+
+    public void recordSerialization(long nanos) {
+        this.serializationNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Valor de la cabecera con lo acumulado hasta ahora; en las respuestas en streaming la cabecera sale con la
+     * primera fila, así que no incluye lo que se lee y serializa después.
+     */
+    public String toHeaderValue() {
+        return "db;dur=%s;desc=\"%d queries\", pool;dur=%s, mapping;dur=%s, serialization;dur=%s, total;dur=%s".formatted(
+                millis(this.dbNanos.get()), this.queries.get(), millis(this.acquireNanos.get()),
+                millis(this.mappingNanos.get()), millis(this.serializationNanos.get()),
+                millis(System.nanoTime() - this.start));
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,46 @@
+package dev.magadiflo.app.timing;
+
+import dev.magadiflo.app.config.ServerTimingProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decide por petición si se mide (cabecera de la petición o muestreo) y, en ese caso, deja un ServerTiming en el
+ * Context y escribe la cabecera Server-Timing justo antes del commit de la respuesta. Las peticiones que no se
+ * miden siguen sin cambios: no se crea nada ni se toca el Context.
+ */
+@RequiredArgsConstructor
+public class ServerTimingFilter implements WebFilter {
+
+    private final ServerTimingProperties properties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!this.isTimed(exchange)) {
+            return chain.filter(exchange);
+        }
+        ServerTiming timing = new ServerTiming();
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> {
+            response.getHeaders().add(ServerTiming.HEADER, timing.toHeaderValue());
+            return Mono.empty();
+        });
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(ServerTiming.class, timing));
+    }
+
+    private boolean isTimed(ServerWebExchange exchange) {
+        String path = exchange.getRequest().getPath().value();
+        if (this.properties.pathPrefixes().stream().noneMatch(path::startsWith)) {
+            return false;
+        }
+        return exchange.getRequest().getHeaders().containsKey(this.properties.requestHeader()) ||
+               (this.properties.sampleRate() > 0 && ThreadLocalRandom.current().nextDouble() < this.properties.sampleRate());
+    }
+}
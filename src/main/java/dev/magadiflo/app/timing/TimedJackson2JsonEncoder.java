@@ -0,0 +1,47 @@
+package dev.magadiflo.app.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Encoder JSON de Jackson que, en las peticiones medidas, suma a ServerTiming el tiempo entre que llega cada valor
+ * y sale su buffer ya serializado. Sin ServerTiming en el Context delega sin cambios.
+ */
+public class TimedJackson2JsonEncoder extends Jackson2JsonEncoder {
+
+    public TimedJackson2JsonEncoder(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                   MimeType mimeType, Map<String, Object> hints) {
+        return Flux.deferContextual(context -> {
+            ServerTiming timing = ServerTiming.from(context);
+            if (timing == null) {
+                return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+            }
+            // Momento en que llegó el último valor aún no serializado; 0 si no hay ninguno pendiente.
+            long[] received = new long[1];
+            Publisher<?> marked = inputStream instanceof Mono<?> mono ?
+                    mono.doOnNext(value -> received[0] = System.nanoTime()) :
+                    Flux.from(inputStream).doOnNext(value -> received[0] = System.nanoTime());
+            return super.encode(marked, bufferFactory, elementType, mimeType, hints)
+                    .doOnNext(buffer -> {
+                        if (received[0] != 0) {
+                            timing.recordSerialization(System.nanoTime() - received[0]);
+                            received[0] = 0;
+                        }
+                    });
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package dev.magadiflo.app.trace;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Una sentencia registrada por QueryTraceRecorder. sql es el texto enviado a Postgres, con los parámetros ya
+ * como $1, $2...; de los valores solo se guarda cuántos se enlazaron. endpoint es el método y el patrón de la ruta
+ * HTTP que ejecutó la sentencia, si corrió dentro de una petición.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record QueryTrace(long sequence,
+                         Instant startedAt,
+                         String sql,
+                         int bindCount,
+                         double durationMillis,
+                         long rows,
+                         String outcome,
+                         String error,
+                         String endpoint,
+                         boolean slow) {
+}
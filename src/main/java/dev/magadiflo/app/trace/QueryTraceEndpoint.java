@@ -0,0 +1,58 @@
+package dev.magadiflo.app.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import dev.magadiflo.app.config.QueryTraceProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /actuator/querytraces devuelve las sentencias registradas por QueryTraceRecorder; POST las vuelca en un
+ * archivo JSON Lines dentro de dumpDirectory y devuelve su ruta. Actuator ejecuta las operaciones fuera del event
+ * loop, así que la escritura del archivo puede bloquear.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "querytraces")
+@RequiredArgsConstructor
+public class QueryTraceEndpoint {
+
+    private final QueryTraceRecorder recorder;
+    private final QueryTraceProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @ReadOperation
+    public Map<String, Object> traces() {
+        return Map.of("capacity", this.recorder.capacity(), "traces", this.recorder.snapshot());
+    }
+
+    @WriteOperation
+    public Map<String, Object> dump() {
+        List<QueryTrace> traces = this.recorder.snapshot();
+        Path file = this.properties.dumpDirectory().resolve("query-traces-%d.jsonl".formatted(System.currentTimeMillis()));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                 SequenceWriter sequenceWriter = this.objectMapper.writer().withRootValueSeparator("\n").writeValues(writer)) {
+                sequenceWriter.writeAll(traces);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo volcar el registro de sentencias en " + file, e);
+        }
+        log.info("Registro de sentencias volcado en {}: {} sentencias", file.toAbsolutePath(), traces.size());
+        return Map.of("file", file.toAbsolutePath().toString(), "traces", traces.size());
+    }
+}
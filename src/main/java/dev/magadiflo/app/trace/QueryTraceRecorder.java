@@ -0,0 +1,78 @@
+package dev.magadiflo.app.trace;
+
+import dev.magadiflo.app.config.QueryTraceProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular sin locks con las últimas sentencias muestreadas o lentas: cada registro toma una posición con
+ * un getAndIncrement y la escribe con un set, pisando la más vieja. En el camino de la sentencia solo se mide el
+ * tiempo; el QueryTrace se arma únicamente para las que se guardan, sin formatear ni escribir nada en el event loop.
+ * La lectura es una foto aproximada: una posición puede pisarse mientras se copia.
+ */
+@Component
+public class QueryTraceRecorder {
+
+    private final QueryTraceProperties properties;
+    private final AtomicReferenceArray<QueryTrace> traces;
+    private final int mask;
+    private final long slowThresholdNanos;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public QueryTraceRecorder(QueryTraceProperties properties) {
+        int capacity = Math.max(2, Integer.highestOneBit(Math.max(1, properties.capacity() - 1)) << 1);
+        this.properties = properties;
+        this.traces = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.slowThresholdNanos = properties.slowThreshold().toNanos();
+    }
+
+    public boolean isEnabled() {
+        return this.properties.enabled();
+    }
+
+    public int capacity() {
+        return this.traces.length();
+    }
+
+    /**
+     * Decide al empezar la sentencia si entra en la muestra, para no depender de cómo termine.
+     */
+    boolean sample() {
+        double sampleRate = this.properties.sampleRate();
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    boolean shouldRecord(boolean sampled, long elapsedNanos) {
+        return sampled || elapsedNanos >= this.slowThresholdNanos;
+    }
+
+    void record(Instant startedAt, String sql, int bindCount, long elapsedNanos, long rows, String outcome,
+                String error, String endpoint) {
+        long next = this.sequence.getAndIncrement();
+        this.traces.set((int) (next & this.mask), new QueryTrace(next, startedAt, sql, bindCount, elapsedNanos / 1_000_000.0,
+                rows, outcome, error, endpoint, elapsedNanos >= this.slowThresholdNanos));
+    }
+
+    /**
+     * Las sentencias guardadas, de la más vieja a la más nueva.
+     */
+    public List<QueryTrace> snapshot() {
+        List<QueryTrace> snapshot = new ArrayList<>(this.traces.length());
+        for (int i = 0; i < this.traces.length(); i++) {
+            QueryTrace trace = this.traces.get(i);
+            if (trace != null) {
+                snapshot.add(trace);
+            }
+        }
+        snapshot.sort(Comparator.comparingLong(QueryTrace::sequence));
+        return snapshot;
+    }
+}
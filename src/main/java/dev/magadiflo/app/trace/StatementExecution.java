@@ -0,0 +1,71 @@
+package dev.magadiflo.app.trace;
+
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import org.springframework.web.reactive.HandlerMapping;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.ContextView;
+
+import java.time.Instant;
+
+/**
+ * Una ejecución de TracingStatement, desde la suscripción a execute() hasta que se termina de leer su resultado.
+ * Termina una sola vez: si la sentencia devuelve varios Result, cuenta el primero. Una cancelación después de
+ * recibir filas (first(), take()) cuenta como success.
+ */
+final class StatementExecution {
+
+    private final QueryTraceRecorder recorder;
+    private final String sql;
+    private final int bindCount;
+    private final boolean sampled;
+    private final ContextView context;
+    private final long start = System.nanoTime();
+    private long rows;
+    private String error;
+    private boolean finished;
+
+    StatementExecution(QueryTraceRecorder recorder, String sql, int bindCount, ContextView context) {
+        this.recorder = recorder;
+        this.sql = sql;
+        this.bindCount = bindCount;
+        this.sampled = recorder.sample();
+        this.context = context;
+    }
+
+    void row() {
+        this.rows++;
+    }
+
+    void rowsUpdated(long rowsUpdated) {
+        this.rows += rowsUpdated;
+    }
+
+    void failed(Throwable exception) {
+        this.error = exception.getClass().getSimpleName();
+    }
+
+    void finish(SignalType signal) {
+        if (this.finished) {
+            return;
+        }
+        this.finished = true;
+        long elapsed = System.nanoTime() - this.start;
+        if (!this.recorder.shouldRecord(this.sampled, elapsed)) {
+            return;
+        }
+        String outcome = signal == SignalType.ON_ERROR ? "error" :
+                signal == SignalType.CANCEL && this.rows == 0 ? "cancelled" : "success";
+        Instant startedAt = Instant.now().minusNanos(elapsed);
+        this.recorder.record(startedAt, this.sql, this.bindCount, elapsed, this.rows, outcome, this.error, this.endpoint());
+    }
+
+    private String endpoint() {
+        return ServerWebExchangeContextFilter.getExchange(this.context)
+                .map(exchange -> {
+                    Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    return exchange.getRequest().getMethod() + " " +
+                           (pattern != null ? pattern : exchange.getRequest().getPath().value());
+                })
+                .orElse(null);
+    }
+}
@@ -0,0 +1,39 @@
+package dev.magadiflo.app.trace;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+
+/**
+ * Envuelve las conexiones físicas antes de que entren al pool, así el envoltorio se crea una vez por conexión y no
+ * en cada adquisición. Cada sentencia se mide desde execute() hasta que se lee su resultado y se entrega a
+ * QueryTraceRecorder, que decide si guardarla. Reemplaza al log DEBUG de io.r2dbc.postgresql.QUERY y PARAM.
+ */
+public class TracingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private final ConnectionFactory delegate;
+    private final QueryTraceRecorder recorder;
+
+    public TracingConnectionFactory(ConnectionFactory delegate, QueryTraceRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.from(this.delegate.create())
+                .map(connection -> new TracingConnection(connection, this.recorder));
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return this.delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return this.delegate;
+    }
+}
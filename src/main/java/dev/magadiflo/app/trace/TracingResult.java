@@ -0,0 +1,76 @@
+package dev.magadiflo.app.trace;
+
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cuenta las filas leídas o modificadas y cierra la StatementExecution cuando se termina de consumir el resultado.
+ */
+final class TracingResult implements Result, Wrapped<Result> {
+
+    private final Result delegate;
+    private final StatementExecution execution;
+
+    TracingResult(Result delegate, StatementExecution execution) {
+        this.delegate = delegate;
+        this.execution = execution;
+    }
+
+    @Override
+    public Flux<Long> getRowsUpdated() {
+        return this.observe(Flux.from(this.delegate.getRowsUpdated())
+                .doOnNext(this.execution::rowsUpdated));
+    }
+
+    @Override
+    public <T> Flux<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+        return this.countRows(Flux.from(this.delegate.map(mappingFunction)));
+    }
+
+    @Override
+    public <T> Flux<T> map(Function<? super Readable, ? extends T> mappingFunction) {
+        return this.countRows(Flux.from(this.delegate.map(mappingFunction)));
+    }
+
+    @Override
+    public Result filter(Predicate<Segment> filter) {
+        return new TracingResult(this.delegate.filter(filter), this.execution);
+    }
+
+    @Override
+    public <T> Flux<T> flatMap(Function<Segment, ? extends Publisher<? extends T>> mappingFunction) {
+        return this.countRows(Flux.from(this.delegate.flatMap(mappingFunction)));
+    }
+
+    @Override
+    public Result unwrap() {
+        return this.delegate;
+    }
+
+    private <T> Flux<T> countRows(Flux<T> rows) {
+        return this.observe(rows.doOnNext(row -> this.execution.row()));
+    }
+
+    /**
+     * Registra antes de pasar la señal final hacia abajo; con doFinally quien espera el resultado podría leer el
+     * registro antes de que la sentencia quede guardada.
+     */
+    private <T> Flux<T> observe(Flux<T> results) {
+        return results.doOnComplete(() -> this.execution.finish(SignalType.ON_COMPLETE))
+                .doOnError(exception -> {
+                    this.execution.failed(exception);
+                    this.execution.finish(SignalType.ON_ERROR);
+                })
+                .doOnCancel(() -> this.execution.finish(SignalType.CANCEL));
+    }
+}
@@ -0,0 +1,91 @@
+package dev.magadiflo.app.trace;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Guarda el texto de la sentencia y cuenta los parámetros enlazados (sin sus valores) para QueryTraceRecorder.
+ */
+final class TracingStatement implements Statement, Wrapped<Statement> {
+
+    private final Statement delegate;
+    private final String sql;
+    private final QueryTraceRecorder recorder;
+    private int bindCount;
+
+    TracingStatement(Statement delegate, String sql, QueryTraceRecorder recorder) {
+        this.delegate = delegate;
+        this.sql = sql;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Statement add() {
+        this.delegate.add();
+        return this;
+    }
+
+    @Override
+    public Statement bind(int index, Object value) {
+        this.delegate.bind(index, value);
+        this.bindCount++;
+        return this;
+    }
+
+    @Override
+    public Statement bind(String name, Object value) {
+        this.delegate.bind(name, value);
+        this.bindCount++;
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(int index, Class<?> type) {
+        this.delegate.bindNull(index, type);
+        this.bindCount++;
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(String name, Class<?> type) {
+        this.delegate.bindNull(name, type);
+        this.bindCount++;
+        return this;
+    }
+
+    @Override
+    public Statement returnGeneratedValues(String... columns) {
+        this.delegate.returnGeneratedValues(columns);
+        return this;
+    }
+
+    @Override
+    public Statement fetchSize(int rows) {
+        this.delegate.fetchSize(rows);
+        return this;
+    }
+
+    /**
+     * Un error antes de recibir el Result (por ejemplo de sintaxis) cierra la ejecución aquí mismo.
+     */
+    @Override
+    public Flux<Result> execute() {
+        return Flux.deferContextual(context -> {
+            StatementExecution execution = new StatementExecution(this.recorder, this.sql, this.bindCount, context);
+            return Flux.from(this.delegate.execute())
+                    .<Result>map(result -> new TracingResult(result, execution))
+                    .doOnError(exception -> {
+                        execution.failed(exception);
+                        execution.finish(SignalType.ON_ERROR);
+                    });
+        });
+    }
+
+    @Override
+    public Statement unwrap() {
+        return this.delegate;
+    }
+}
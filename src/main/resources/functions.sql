@@ -0,0 +1,151 @@
+CREATE OR REPLACE FUNCTION save_department_graph(p_department_id BIGINT,
+                                                 p_name VARCHAR,
+                                                 p_manager_id BIGINT,
+                                                 p_employee_ids BIGINT[])
+RETURNS BIGINT
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_department_id BIGINT;
+BEGIN
+    IF p_department_id IS NULL THEN
+        INSERT INTO departments(name) VALUES(p_name) RETURNING id INTO v_department_id;
+    ELSE
+        UPDATE departments SET name = p_name WHERE id = p_department_id RETURNING id INTO v_department_id;
+        IF v_department_id IS NULL THEN
+            RAISE EXCEPTION 'El departamento % no existe', p_department_id USING ERRCODE = 'no_data_found';
+        END IF;
+    END IF;
+
+    DELETE FROM department_managers
+    WHERE (department_id = v_department_id OR employee_id = p_manager_id)
+        AND (p_manager_id IS NULL OR NOT (department_id = v_department_id AND employee_id = p_manager_id));
+
+    IF p_manager_id IS NOT NULL THEN
+        INSERT INTO department_managers(department_id, employee_id)
+        VALUES(v_department_id, p_manager_id)
+        ON CONFLICT ON CONSTRAINT pk_dm DO NOTHING;
+    END IF;
+
+    DELETE FROM department_employees
+    WHERE department_id = v_department_id AND employee_id <> ALL(p_employee_ids);
+
+    INSERT INTO department_employees(department_id, employee_id)
+    SELECT v_department_id, ids.employee_id
+    FROM unnest(p_employee_ids) AS ids(employee_id)
+    WHERE NOT EXISTS(SELECT 1
+                     FROM department_employees AS de
+                     WHERE de.department_id = v_department_id AND de.employee_id = ids.employee_id)
+    ON CONFLICT ON CONSTRAINT uk_employee_id_de DO UPDATE SET department_id = EXCLUDED.department_id;
+
+    RETURN v_department_id;
+END;
+$$;
+
+-- Cada cambio en departamentos, empleados o membresías se publica en el canal department_graph_changes al hacer
+-- commit, para que cada instancia invalide su caché: 'd:<id>' para un departamento, 'e:<id>' para un empleado
+-- y '*' cuando un TRUNCATE vacía la tabla. Los triggers son por sentencia y leen las filas cambiadas de las
+-- tablas de transición, así que cada sentencia envía una sola notificación por clave. TG_ARGV[0] es el prefijo
+-- de la clave y TG_ARGV[1] la columna de la que sale el id.
+CREATE OR REPLACE FUNCTION notify_department_graph_change()
+RETURNS TRIGGER
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        PERFORM pg_notify('department_graph_changes', '*');
+    ELSIF TG_OP = 'INSERT' THEN
+        PERFORM pg_notify('department_graph_changes', changed.key)
+        FROM (SELECT DISTINCT TG_ARGV[0] || ':' || (to_jsonb(n) ->> TG_ARGV[1]) AS key
+              FROM new_rows AS n) AS changed;
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('department_graph_changes', changed.key)
+        FROM (SELECT DISTINCT TG_ARGV[0] || ':' || (to_jsonb(o) ->> TG_ARGV[1]) AS key
+              FROM old_rows AS o) AS changed;
+    ELSE
+        PERFORM pg_notify('department_graph_changes', changed.key)
+        FROM (SELECT TG_ARGV[0] || ':' || (to_jsonb(o) ->> TG_ARGV[1]) AS key
+              FROM old_rows AS o
+              UNION
+              SELECT TG_ARGV[0] || ':' || (to_jsonb(n) ->> TG_ARGV[1])
+              FROM new_rows AS n) AS changed;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE TRIGGER trg_employees_insert
+AFTER INSERT ON employees
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change('e', 'id');
+
+CREATE OR REPLACE TRIGGER trg_employees_update
+AFTER UPDATE ON employees
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change('e', 'id');
+
+CREATE OR REPLACE TRIGGER trg_employees_delete
+AFTER DELETE ON employees
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change('e', 'id');
+
+CREATE OR REPLACE TRIGGER trg_employees_truncate
+AFTER TRUNCATE ON employees
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change();
+
+CREATE OR REPLACE TRIGGER trg_departments_insert
+AFTER INSERT ON departments
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change('d', 'id');
+
+CREATE OR REPLACE TRIGGER trg_departments_update
+AFTER UPDATE ON departments
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change('d', 'id');
+
+CREATE OR REPLACE TRIGGER trg_departments_delete
+AFTER DELETE ON departments
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change('d', 'id');
+
+CREATE OR REPLACE TRIGGER trg_departments_truncate
+AFTER TRUNCATE ON departments
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change();
+
+CREATE OR REPLACE TRIGGER trg_department_managers_insert
+AFTER INSERT ON department_managers
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change('d', 'department_id');
+
+CREATE OR REPLACE TRIGGER trg_department_managers_update
+AFTER UPDATE ON department_managers
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change('d', 'department_id');
+
+CREATE OR REPLACE TRIGGER trg_department_managers_delete
+AFTER DELETE ON department_managers
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change('d', 'department_id');
+
+CREATE OR REPLACE TRIGGER trg_department_managers_truncate
+AFTER TRUNCATE ON department_managers
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change();
+
+CREATE OR REPLACE TRIGGER trg_department_employees_insert
+AFTER INSERT ON department_employees
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change('d', 'department_id');
+
+CREATE OR REPLACE TRIGGER trg_department_employees_update
+AFTER UPDATE ON department_employees
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change('d', 'department_id');
+
+CREATE OR REPLACE TRIGGER trg_department_employees_delete
+AFTER DELETE ON department_employees
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change('d', 'department_id');
+
+CREATE OR REPLACE TRIGGER trg_department_employees_truncate
+AFTER TRUNCATE ON department_employees
+FOR EACH STATEMENT EXECUTE FUNCTION notify_department_graph_change();
@@ -29,3 +29,6 @@ CREATE TABLE IF NOT EXISTS department_employees(
     CONSTRAINT fk_employees_de FOREIGN KEY(employee_id) REFERENCES employees(id),
     CONSTRAINT uk_employee_id_de UNIQUE(employee_id)
 );
+
+CREATE INDEX IF NOT EXISTS idx_employees_position_id ON employees(position, id);
+CREATE INDEX IF NOT EXISTS idx_employees_is_full_time_id ON employees(is_full_time, id);
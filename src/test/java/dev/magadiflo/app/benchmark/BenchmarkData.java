@@ -0,0 +1,57 @@
+package dev.magadiflo.app.benchmark;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Genera en la base de pruebas un volumen de departamentos y empleados configurable para los benchmarks.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static void seed(DatabaseClient client, int departments, int employeesPerDepartment) {
+        client.sql("""
+                        TRUNCATE TABLE departments RESTART IDENTITY CASCADE;
+                        TRUNCATE TABLE employees RESTART IDENTITY CASCADE;
+                        """)
+                .then()
+                .block();
+
+        client.sql("""
+                        INSERT INTO departments(name)
+                        SELECT 'Departamento ' || d FROM generate_series(1, :departments) AS d
+                        """)
+                .bind("departments", departments)
+                .then()
+                .block();
+
+        client.sql("""
+                        INSERT INTO employees(first_name, last_name, position, is_full_time)
+                        SELECT 'Nombre ' || e, 'Apellido ' || e, 'Puesto ' || (e % 7), e % 3 <> 0
+                        FROM generate_series(1, :total) AS e
+                        """)
+                .bind("total", departments * (employeesPerDepartment + 1))
+                .then()
+                .block();
+
+        client.sql("""
+                        INSERT INTO department_managers(department_id, employee_id)
+                        SELECT d, d FROM generate_series(1, :departments) AS d
+                        """)
+                .bind("departments", departments)
+                .then()
+                .block();
+
+        client.sql("""
+                        INSERT INTO department_employees(department_id, employee_id)
+                        SELECT ((e - :departments - 1) / :perDepartment) + 1, e
+                        FROM generate_series(:departments + 1, :total) AS e
+                        """)
+                .bind("departments", departments)
+                .bind("perDepartment", employeesPerDepartment)
+                .bind("total", departments * (employeesPerDepartment + 1))
+                .then()
+                .block();
+    }
+}
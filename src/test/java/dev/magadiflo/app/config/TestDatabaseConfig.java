@@ -4,20 +4,29 @@ import io.r2dbc.spi.ConnectionFactory;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.CompositeDatabasePopulator;
 import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
 import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.connection.init.ScriptUtils;
 
 @TestConfiguration
 public class TestDatabaseConfig {
     @Bean
     public ConnectionFactoryInitializer initializer(ConnectionFactory connectionFactory) {
         ClassPathResource schemaResource = new ClassPathResource("schema.sql");
+        ClassPathResource functionsResource = new ClassPathResource("functions.sql");
         ClassPathResource dataResource = new ClassPathResource("data.sql");
-        ResourceDatabasePopulator resourceDatabasePopulator = new ResourceDatabasePopulator(schemaResource, dataResource);
+
+        // Los cuerpos $$ ... $$ de las funciones contienen ';', así que functions.sql se envía como un solo script.
+        ResourceDatabasePopulator functionsPopulator = new ResourceDatabasePopulator(functionsResource);
+        functionsPopulator.setSeparator(ScriptUtils.EOF_STATEMENT_SEPARATOR);
 
         ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
         initializer.setConnectionFactory(connectionFactory);
-        initializer.setDatabasePopulator(resourceDatabasePopulator);
+        initializer.setDatabasePopulator(new CompositeDatabasePopulator(
+                new ResourceDatabasePopulator(schemaResource),
+                functionsPopulator,
+                new ResourceDatabasePopulator(dataResource)));
         return initializer;
     }
 }
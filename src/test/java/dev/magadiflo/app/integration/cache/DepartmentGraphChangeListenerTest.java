@@ -0,0 +1,155 @@
+package dev.magadiflo.app.integration.cache;
+
+import dev.magadiflo.app.cache.DepartmentGraphCache;
+import dev.magadiflo.app.dao.DepartmentDao;
+import dev.magadiflo.app.model.entity.Department;
+import dev.magadiflo.app.model.entity.Employee;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+        "app.department-cache.listener-health-check-interval=1s",
+        "app.department-cache.listener-min-backoff=50ms",
+        "app.department-cache.listener-max-backoff=200ms"
+})
+class DepartmentGraphChangeListenerTest {
+
+    @Autowired
+    private DepartmentDao departmentDao;
+
+    @Autowired
+    private DepartmentGraphCache departmentGraphCache;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private static String DATA_SQL;
+
+    @BeforeAll
+    static void beforeAll() throws IOException {
+        Path dataPath = Paths.get("src/test/resources/data.sql");
+        byte[] readData = Files.readAllBytes(dataPath);
+        DATA_SQL = new String(readData);
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.databaseClient.sql(DATA_SQL)
+                .fetch()
+                .rowsUpdated()
+                .block();
+        await().atMost(Duration.ofSeconds(5)).until(this.departmentGraphCache::isEnabled);
+    }
+
+    @Test
+    void shouldEvictCachedGraph_whenDepartmentIsChangedOutsideThisNode() {
+        // given
+        this.awaitCachedName(1L, "Tecnología");
+
+        // when
+        this.execute("UPDATE departments SET name = 'TI' WHERE id = 1");
+
+        // then
+        this.awaitCachedName(1L, "TI");
+    }
+
+    @Test
+    void shouldEvictCachedGraph_whenEmployeeIsChangedOutsideThisNode() {
+        // given
+        assertThat(this.findEmployee(1L, 2L).getFirstName()).isEqualTo("Katherine");
+
+        // when
+        this.execute("UPDATE employees SET first_name = 'Kathy' WHERE id = 2");
+
+        // then
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(this.findEmployee(1L, 2L).getFirstName()).isEqualTo("Kathy"));
+    }
+
+    @Test
+    void shouldEvictCachedGraph_whenMembershipTableIsTruncatedOutsideThisNode() {
+        // given
+        assertThat(this.findEmployee(1L, 2L)).isNotNull();
+
+        // when
+        this.execute("TRUNCATE TABLE department_employees");
+
+        // then
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(this.findEmployee(1L, 2L)).isNull());
+    }
+
+    @Test
+    void shouldEvictEveryChangedDepartment_whenOneStatementChangesSeveralLinks() {
+        // given
+        this.awaitCachedName(1L, "Tecnología");
+        assertThat(this.findEmployee(2L, 5L)).isNotNull();
+
+        // when
+        this.execute("UPDATE department_employees SET department_id = 1 WHERE employee_id = 5");
+
+        // then
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> {
+                    assertThat(this.findEmployee(2L, 5L)).isNull();
+                    assertThat(this.findEmployee(1L, 5L)).isNotNull();
+                });
+    }
+
+    @Test
+    void shouldListenAgain_whenListenerConnectionIsTerminated() {
+        // given
+        this.awaitCachedName(1L, "Tecnología");
+
+        // when
+        this.execute("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = 'department-graph-listener'");
+
+        // then
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> this.departmentGraphCache.isEnabled() && this.countListenerConnections() > 0);
+        this.awaitCachedName(1L, "Tecnología");
+        this.execute("UPDATE departments SET name = 'TI' WHERE id = 1");
+        this.awaitCachedName(1L, "TI");
+    }
+
+    private void awaitCachedName(Long departmentId, String name) {
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(this.departmentDao.findDepartmentWithManagerAndEmployees(departmentId)
+                        .map(Department::getName)
+                        .block()).isEqualTo(name));
+    }
+
+    private Employee findEmployee(Long departmentId, Long employeeId) {
+        return this.departmentDao.findDepartmentWithManagerAndEmployees(departmentId)
+                .flatMapIterable(Department::getEmployees)
+                .filter(employee -> employee.getId().equals(employeeId))
+                .blockFirst();
+    }
+
+    private long countListenerConnections() {
+        return this.databaseClient.sql("SELECT count(*) FROM pg_stat_activity WHERE application_name = 'department-graph-listener'")
+                .map((row, rowMetadata) -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+    private void execute(String sql) {
+        this.databaseClient.sql(sql)
+                .fetch()
+                .rowsUpdated()
+                .block();
+    }
+}
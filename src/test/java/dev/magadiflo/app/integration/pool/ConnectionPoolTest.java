@@ -0,0 +1,51 @@
+package dev.magadiflo.app.integration.pool;
+
+import dev.magadiflo.app.pool.TimedConnectionFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.PoolMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.r2dbc.pool.initial-size=3",
+        "spring.r2dbc.pool.max-size=5"
+})
+class ConnectionPoolTest {
+
+    @Autowired
+    private TimedConnectionFactory connectionFactory;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldOpenInitialConnections_beforeApplicationIsReady() {
+        PoolMetrics metrics = this.connectionFactory.unwrap().getMetrics().orElseThrow();
+
+        assertThat(metrics.allocatedSize()).isGreaterThanOrEqualTo(3);
+        assertThat(metrics.getMaxAllocatedSize()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldRecordAcquireLatencyAndPublishPoolGauges_whenConnectionIsUsed() {
+        // given
+        long acquiredBefore = this.meterRegistry.get("r2dbc.pool.acquire").tag("outcome", "success").timer().count();
+
+        // when
+        this.databaseClient.sql("SELECT 1").fetch().rowsUpdated().block();
+
+        // then
+        assertThat(this.meterRegistry.get("r2dbc.pool.acquire").tag("outcome", "success").timer().count())
+                .isEqualTo(acquiredBefore + 1);
+        assertThat(this.meterRegistry.get("r2dbc.pool.acquired").tag("name", "connectionFactory").gauge()).isNotNull();
+        assertThat(this.meterRegistry.get("r2dbc.pool.idle").gauge()).isNotNull();
+        assertThat(this.meterRegistry.get("r2dbc.pool.pending").gauge()).isNotNull();
+    }
+}
@@ -1,12 +1,14 @@
 package dev.magadiflo.app.integration.repository;
 
 import dev.magadiflo.app.config.TestDatabaseConfig;
+import dev.magadiflo.app.exception.EmployeeNotFoundException;
 import dev.magadiflo.app.model.entity.Employee;
 import dev.magadiflo.app.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.test.context.ContextConfiguration;
@@ -18,6 +20,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -77,6 +80,16 @@ class EmployeeRepositoryTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldFindOnlyExistingEmployees_whenSeveralIdsAreProvided() {
+        this.employeeRepository.findAllByIds(List.of(6L, 100L, 2L))
+                .map(Employee::getFirstName)
+                .collectList()
+                .as(StepVerifier::create)
+                .consumeNextWith(firstNames -> assertThat(firstNames).containsExactlyInAnyOrder("Lizbeth", "Katherine"))
+                .verifyComplete();
+    }
+
     @Test
     void shouldFindAllEmployeeByPosition() {
         // given
@@ -128,6 +141,42 @@ class EmployeeRepositoryTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldReturnNextKeysetPage_whenAfterIdIsProvided() {
+        this.employeeRepository.findAllByIdGreaterThanOrderByIdAsc(2L, Limit.of(3))
+                .map(Employee::getId)
+                .as(StepVerifier::create)
+                .expectNext(3L, 4L, 5L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnNextKeysetPageFilteredByPositionAndFullTime_whenAfterIdIsProvided() {
+        this.employeeRepository.findAllByPositionAndFullTimeAndIdGreaterThanOrderByIdAsc("Teacher", true, 6L, Limit.of(5))
+                .map(Employee::getId)
+                .as(StepVerifier::create)
+                .expectNext(7L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldStreamAllEmployees_whenFetchSizeIsSmallerThanResult() {
+        this.employeeRepository.streamAll(null, true, 2)
+                .map(Employee::getId)
+                .as(StepVerifier::create)
+                .expectNext(1L, 2L, 4L, 5L, 6L, 7L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldStreamEmployeesFilteredByPosition() {
+        this.employeeRepository.streamAll("Teacher", null, 2)
+                .map(Employee::getFirstName)
+                .as(StepVerifier::create)
+                .expectNext("Lizbeth", "Jorge")
+                .verifyComplete();
+    }
+
     @Test
     void shouldSaveAnEmployee() {
         // given
@@ -150,6 +199,100 @@ class EmployeeRepositoryTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldInsertAndUpdateEmployees_whenUpsertingInBulk() {
+        // given
+        Employee existing = new Employee(2L, "Katherine", "Fernández", "Arquitecto", false);
+        Employee newEmployee = Employee.builder()
+                .firstName("Pepe")
+                .lastName("Menis")
+                .position("Animador")
+                .fullTime(true)
+                .build();
+
+        // when
+        Flux<Employee> result = this.employeeRepository.upsertAll(List.of(newEmployee, existing));
+
+        // then
+        StepVerifier.create(result)
+                .assertNext(employeeDB -> {
+                    assertThat(employeeDB).isSameAs(newEmployee);
+                    assertThat(employeeDB.getId()).isEqualTo(8L);
+                })
+                .assertNext(employeeDB -> assertThat(employeeDB.getId()).isEqualTo(2L))
+                .verifyComplete();
+
+        this.employeeRepository.findById(2L)
+                .as(StepVerifier::create)
+                .assertNext(employeeDB -> {
+                    assertThat(employeeDB.getPosition()).isEqualTo("Arquitecto");
+                    assertThat(employeeDB.isFullTime()).isFalse();
+                })
+                .verifyComplete();
+        this.employeeRepository.findById(8L)
+                .as(StepVerifier::create)
+                .assertNext(employeeDB -> assertThat(employeeDB.getFirstName()).isEqualTo("Pepe"))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldNotInsertAnything_whenUpsertingAnIdThatDoesNotExist() {
+        // given
+        Employee existing = new Employee(3L, "Vanessa", "Bello", "Diseñadora", true);
+        Employee missing = new Employee(9999L, "Fantasma", "Perdido", "Ninguno", true);
+        Employee newEmployee = Employee.builder()
+                .firstName("Pepe")
+                .lastName("Menis")
+                .position("Animador")
+                .fullTime(true)
+                .build();
+
+        // when
+        Flux<Employee> result = this.employeeRepository.upsertAll(List.of(newEmployee, existing, missing));
+
+        // then
+        StepVerifier.create(result)
+                .expectErrorSatisfies(throwable -> {
+                    assertThat(throwable).isInstanceOf(EmployeeNotFoundException.class);
+                    assertThat(throwable.getMessage()).isEqualTo("El empleado con id %d no fue encontrado".formatted(9999));
+                })
+                .verify();
+        this.employeeRepository.findById(3L)
+                .as(StepVerifier::create)
+                .assertNext(employeeDB -> assertThat(employeeDB.getPosition()).isEqualTo("Diseñador"))
+                .verifyComplete();
+        this.employeeRepository.findById(9999L)
+                .as(StepVerifier::create)
+                .verifyComplete();
+        this.employeeRepository.findAll()
+                .as(StepVerifier::create)
+                .expectNextCount(7)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldKeepLastOccurrence_whenSameIdIsUpsertedTwice() {
+        // given
+        Employee first = new Employee(2L, "Katherine", "Fernández", "Arquitecto", false);
+        Employee second = new Employee(2L, "Katherine", "Fernández", "Directora", true);
+
+        // when
+        Flux<Employee> result = this.employeeRepository.upsertAll(List.of(first, second));
+
+        // then
+        StepVerifier.create(result)
+                .assertNext(employeeDB -> assertThat(employeeDB.getId()).isEqualTo(2L))
+                .assertNext(employeeDB -> assertThat(employeeDB.getId()).isEqualTo(2L))
+                .verifyComplete();
+        this.employeeRepository.findById(2L)
+                .as(StepVerifier::create)
+                .assertNext(employeeDB -> {
+                    assertThat(employeeDB.getPosition()).isEqualTo("Directora");
+                    assertThat(employeeDB.isFullTime()).isTrue();
+                })
+                .verifyComplete();
+    }
+
     @Test
     void shouldDeleteAnEmployee() {
         // given
@@ -167,4 +310,39 @@ class EmployeeRepositoryTest {
                 .expectNextCount(0)
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldUpdateAnEmployeeAndReturnItsNewState_withASingleStatement() {
+        // given
+        Employee employee = new Employee(null, "Lizbeth", "Gonzales", "Docente", false);
+
+        // when
+        Mono<Employee> result = this.employeeRepository.updateById(6L, employee);
+
+        // then
+        StepVerifier.create(result)
+                .assertNext(employeeDB -> {
+                    assertThat(employeeDB.getId()).isEqualTo(6L);
+                    assertThat(employeeDB.getPosition()).isEqualTo("Docente");
+                    assertThat(employeeDB.isFullTime()).isFalse();
+                })
+                .verifyComplete();
+        this.employeeRepository.updateById(100L, employee)
+                .as(StepVerifier::create)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldDeleteAnEmployeeAndReturnItsId_withASingleStatement() {
+        // when
+        Mono<Long> result = this.employeeRepository.deleteByIdReturningId(6L);
+
+        // then
+        StepVerifier.create(result)
+                .expectNext(6L)
+                .verifyComplete();
+        this.employeeRepository.deleteByIdReturningId(6L)
+                .as(StepVerifier::create)
+                .verifyComplete();
+    }
+}
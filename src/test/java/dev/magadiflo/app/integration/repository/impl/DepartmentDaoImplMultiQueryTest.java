@@ -0,0 +1,122 @@
+package dev.magadiflo.app.integration.repository.impl;
+
+import dev.magadiflo.app.dao.impl.DepartmentDaoImpl;
+import dev.magadiflo.app.model.entity.Department;
+import dev.magadiflo.app.model.entity.Employee;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.department-dao.read-strategy=multi-query")
+class DepartmentDaoImplMultiQueryTest {
+
+    @Autowired
+    private DepartmentDaoImpl departmentDao;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private static String DATA_SQL;
+
+    @BeforeAll
+    static void beforeAll() throws IOException {
+        Path dataPath = Paths.get("src/test/resources/data.sql");
+        byte[] readData = Files.readAllBytes(dataPath);
+        DATA_SQL = new String(readData);
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.databaseClient.sql(DATA_SQL)
+                .fetch()
+                .rowsUpdated()
+                .block();
+    }
+
+    @Test
+    void shouldReturnFluxOfDepartments_whenDataExists() {
+        this.departmentDao.findAll()
+                .as(StepVerifier::create)
+                .assertNext(departmentDB -> {
+                    assertThat(departmentDB.getId()).isEqualTo(1L);
+                    assertThat(departmentDB.getEmployees()).extracting(Employee::getId).containsExactlyInAnyOrder(2L, 3L);
+                })
+                .assertNext(departmentDB -> assertThat(departmentDB.getManager().get().getId()).isEqualTo(4L))
+                .assertNext(departmentDB -> {
+                    assertThat(departmentDB.getManager()).isEmpty();
+                    assertThat(departmentDB.getEmployees()).isEmpty();
+                })
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnGraphsOfExistingDepartments_whenSeveralIdsAreProvided() {
+        this.departmentDao.findDepartmentsWithManagerAndEmployees(List.of(2L, 100L, 1L))
+                .as(StepVerifier::create)
+                .assertNext(departmentDB -> {
+                    assertThat(departmentDB.getId()).isEqualTo(1L);
+                    assertThat(departmentDB.getManager().get().getId()).isEqualTo(1L);
+                    assertThat(departmentDB.getEmployees()).extracting(Employee::getId).containsExactlyInAnyOrder(2L, 3L);
+                })
+                .assertNext(departmentDB -> {
+                    assertThat(departmentDB.getId()).isEqualTo(2L);
+                    assertThat(departmentDB.getManager().get().getId()).isEqualTo(4L);
+                    assertThat(departmentDB.getEmployees()).extracting(Employee::getId).containsExactly(5L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnDepartmentWithManagerAndEmployees_whenValidIdIsProvided() {
+        // given
+        Long validDepartmentId = 1L;
+
+        // when
+        Mono<Department> result = this.departmentDao.findDepartmentWithManagerAndEmployees(validDepartmentId);
+
+        // then
+        StepVerifier.create(result)
+                .consumeNextWith(departmentDB -> {
+                    assertThat(departmentDB.getName()).isEqualTo("Tecnología");
+                    assertThat(departmentDB.getManager().isPresent()).isTrue();
+                    assertThat(departmentDB.getManager().get().getFirstName()).isEqualTo("Martín");
+                    assertThat(departmentDB.getManager().get().isFullTime()).isTrue();
+                    assertThat(departmentDB.getEmployees().size()).isEqualTo(2);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldNotReturnDepartment_whenInvalidIdIsProvided() {
+        this.departmentDao.findDepartmentWithManagerAndEmployees(100L)
+                .as(StepVerifier::create)
+                .expectNextCount(0)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnDepartment_whenValidNameIsProvided() {
+        this.departmentDao.findByName("Ventas")
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> {
+                    assertThat(departmentDB.getId()).isEqualTo(2L);
+                    assertThat(departmentDB.getManager()).isPresent();
+                    assertThat(departmentDB.getEmployees()).extracting(Employee::getFirstName).containsExactly("Alexander");
+                })
+                .verifyComplete();
+    }
+}
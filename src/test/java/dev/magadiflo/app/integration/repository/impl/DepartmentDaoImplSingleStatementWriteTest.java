@@ -0,0 +1,240 @@
+package dev.magadiflo.app.integration.repository.impl;
+
+import dev.magadiflo.app.dao.impl.DepartmentDaoImpl;
+import dev.magadiflo.app.exception.DepartmentNotFoundException;
+import dev.magadiflo.app.exception.EmployeeNotFoundException;
+import dev.magadiflo.app.model.entity.Department;
+import dev.magadiflo.app.model.entity.Employee;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.department-dao.write-strategy=single-statement")
+class DepartmentDaoImplSingleStatementWriteTest {
+
+    @Autowired
+    private DepartmentDaoImpl departmentDao;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private static String DATA_SQL;
+
+    @BeforeAll
+    static void beforeAll() throws IOException {
+        Path dataPath = Paths.get("src/test/resources/data.sql");
+        byte[] readData = Files.readAllBytes(dataPath);
+        DATA_SQL = new String(readData);
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.databaseClient.sql(DATA_SQL)
+                .fetch()
+                .rowsUpdated()
+                .block();
+    }
+
+    @Test
+    void shouldSaveDepartmentWithManagerAndEmployees_whenValidDepartmentIsProvided() {
+        // given
+        Employee manager = new Employee(null, "Alejandrina", "Flores", "Administradora", true);
+        Employee employee1 = new Employee(null, "Evelyn", "Pino", "Vendedor", false);
+        Employee employee2 = new Employee(7L, "Jorge", "Gayoso", "Teacher", true);
+
+        Department department = Department.builder()
+                .name("Recursos Humanos")
+                .manager(manager)
+                .employees(List.of(employee1, employee2))
+                .build();
+
+        // when
+        Mono<Department> result = this.departmentDao.save(department);
+
+        // then
+        StepVerifier.create(result)
+                .consumeNextWith(departmentDB -> {
+                    assertThat(departmentDB.getId()).isEqualTo(5L);
+                    assertThat(manager.getId()).isEqualTo(8L);
+                    assertThat(employee1.getId()).isEqualTo(9L);
+                    assertThat(employee2.getId()).isEqualTo(7L);
+                })
+                .verifyComplete();
+
+        this.departmentDao.findDepartmentWithManagerAndEmployees(5L)
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> {
+                    assertThat(departmentDB.getName()).isEqualTo("Recursos Humanos");
+                    assertThat(departmentDB.getManager().get().getFirstName()).isEqualTo("Alejandrina");
+                    assertThat(departmentDB.getEmployees()).extracting(Employee::getId).containsExactlyInAnyOrder(7L, 9L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldMoveManagerAndEmployeeLinks_whenMembershipChanges() {
+        // given
+        Employee manager = new Employee(4L, "Melissa", "Peralta", "Gerente", true);
+        Employee employee1 = new Employee(2L, "Katherine", "Fernández", "Desarrollador", true);
+        Employee employee2 = new Employee(5L, "Alexander", "Villanueva", "Vendedor", true);
+
+        Department department = Department.builder()
+                .id(1L)
+                .name("Tecnología")
+                .manager(manager)
+                .employees(List.of(employee1, employee2))
+                .build();
+
+        // when
+        Mono<Department> result = this.departmentDao.save(department);
+
+        // then
+        StepVerifier.create(result)
+                .expectNext(department)
+                .verifyComplete();
+
+        this.departmentDao.findDepartmentWithManagerAndEmployees(1L)
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> {
+                    assertThat(departmentDB.getManager().get().getId()).isEqualTo(4L);
+                    assertThat(departmentDB.getEmployees()).extracting(Employee::getId).containsExactlyInAnyOrder(2L, 5L);
+                })
+                .verifyComplete();
+        this.departmentDao.findDepartmentWithManagerAndEmployees(2L)
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> {
+                    assertThat(departmentDB.getManager()).isEmpty();
+                    assertThat(departmentDB.getEmployees()).isEmpty();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldNotRewriteMembershipLinks_whenOnlyTheNameChanges() {
+        // given
+        Employee manager = new Employee(1L, "Martín", "Díaz", "Gerente", true);
+        Employee employee1 = new Employee(2L, "Katherine", "Fernández", "Desarrollador", true);
+        Employee employee2 = new Employee(3L, "Vanessa", "Bello", "Diseñador", false);
+
+        Department department = Department.builder()
+                .id(1L)
+                .name("TI")
+                .manager(manager)
+                .employees(List.of(employee1, employee2))
+                .build();
+        List<String> linkVersionsBefore = this.findLinkVersions(1L);
+
+        // when
+        Mono<Department> result = this.departmentDao.save(department);
+
+        // then
+        StepVerifier.create(result)
+                .expectNext(department)
+                .verifyComplete();
+        assertThat(linkVersionsBefore).hasSize(3);
+        assertThat(this.findLinkVersions(1L)).isEqualTo(linkVersionsBefore);
+        this.departmentDao.findById(1L)
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> assertThat(departmentDB.getName()).isEqualTo("TI"))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldRemoveAllLinks_whenDepartmentHasNoManagerNorEmployees() {
+        // given
+        Department department = Department.builder()
+                .id(1L)
+                .name("Tecnología")
+                .build();
+
+        // when
+        Mono<Department> result = this.departmentDao.save(department);
+
+        // then
+        StepVerifier.create(result)
+                .expectNext(department)
+                .verifyComplete();
+        assertThat(this.findLinkVersions(1L)).isEmpty();
+    }
+
+    @Test
+    void shouldNotWriteAnything_whenDepartmentIdDoesNotExist() {
+        // given
+        Employee employee = new Employee(null, "Evelyn", "Pino", "Vendedor", false);
+        Department department = Department.builder()
+                .id(100L)
+                .name("Fantasma")
+                .employees(List.of(employee))
+                .build();
+
+        // when
+        Mono<Department> result = this.departmentDao.save(department);
+
+        // then
+        StepVerifier.create(result)
+                .expectError(DepartmentNotFoundException.class)
+                .verify();
+        this.departmentDao.findById(100L)
+                .as(StepVerifier::create)
+                .verifyComplete();
+        assertThat(this.countEmployees()).isEqualTo(7L);
+    }
+
+    @Test
+    void shouldNotWriteAnything_whenAnEmployeeIdDoesNotExist() {
+        // given
+        Employee missing = new Employee(9999L, "Fantasma", "Perdido", "Ninguno", true);
+        Department department = Department.builder()
+                .name("Recursos Humanos")
+                .manager(new Employee(null, "Alejandrina", "Flores", "Administradora", true))
+                .employees(List.of(missing))
+                .build();
+
+        // when
+        Mono<Department> result = this.departmentDao.save(department);
+
+        // then
+        StepVerifier.create(result)
+                .expectError(EmployeeNotFoundException.class)
+                .verify();
+        this.departmentDao.findAll()
+                .as(StepVerifier::create)
+                .expectNextCount(4)
+                .verifyComplete();
+        assertThat(this.countEmployees()).isEqualTo(7L);
+    }
+
+    private Long countEmployees() {
+        return this.databaseClient.sql("SELECT count(*) FROM employees")
+                .map((row, rowMetadata) -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+    private List<String> findLinkVersions(Long departmentId) {
+        return this.databaseClient.sql("""
+                        SELECT 'm' || employee_id || ':' || xmin AS version FROM department_managers WHERE department_id = :departmentId
+                        UNION ALL
+                        SELECT 'e' || employee_id || ':' || xmin FROM department_employees WHERE department_id = :departmentId
+                        ORDER BY 1
+                        """)
+                .bind("departmentId", departmentId)
+                .map((row, rowMetadata) -> row.get(0, String.class))
+                .all()
+                .collectList()
+                .block();
+    }
+}
@@ -1,5 +1,6 @@
 package dev.magadiflo.app.integration.repository.impl;
 
+import dev.magadiflo.app.model.dto.MembershipChange;
 import dev.magadiflo.app.model.entity.Department;
 import dev.magadiflo.app.model.entity.Employee;
 import dev.magadiflo.app.dao.impl.DepartmentDaoImpl;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -54,6 +56,28 @@ class DepartmentDaoImplTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldStreamAllDepartments_whenFetchSizeIsSmallerThanResult() {
+        this.departmentDao.streamAll(2)
+                .map(Department::getId)
+                .as(StepVerifier::create)
+                .expectNext(1L, 2L, 3L, 4L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnPageOfDepartments_whenAfterIdIsProvided() {
+        this.departmentDao.findPage(1L, 2)
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> {
+                    assertThat(departmentDB.getId()).isEqualTo(2L);
+                    assertThat(departmentDB.getManager()).isPresent();
+                    assertThat(departmentDB.getEmployees().size()).isEqualTo(1);
+                })
+                .consumeNextWith(departmentDB -> assertThat(departmentDB.getId()).isEqualTo(3L))
+                .verifyComplete();
+    }
+
     @Test
     void shouldReturnDepartment_whenValidIdIsProvided() {
         // given
@@ -71,6 +95,64 @@ class DepartmentDaoImplTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldInsertDepartment_whenNameDoesNotExist() {
+        this.departmentDao.insertIfAbsent("Recursos Humanos")
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> {
+                    assertThat(departmentDB.getId()).isEqualTo(5L);
+                    assertThat(departmentDB.getName()).isEqualTo("Recursos Humanos");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnEmpty_whenNameAlreadyExists() {
+        this.departmentDao.insertIfAbsent("Legal")
+                .as(StepVerifier::create)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldInsertOnlyOnce_whenSameNameIsCreatedConcurrently() {
+        // when
+        Mono<List<Department>> result = Flux.range(0, 8)
+                .flatMap(attempt -> this.departmentDao.insertIfAbsent("Marketing"))
+                .collectList();
+
+        // then
+        StepVerifier.create(result)
+                .assertNext(created -> assertThat(created).hasSize(1))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnGraphsOfExistingDepartments_whenSeveralIdsAreProvided() {
+        this.departmentDao.findDepartmentsWithManagerAndEmployees(List.of(2L, 100L, 1L))
+                .as(StepVerifier::create)
+                .assertNext(departmentDB -> {
+                    assertThat(departmentDB.getId()).isEqualTo(1L);
+                    assertThat(departmentDB.getManager().get().getId()).isEqualTo(1L);
+                    assertThat(departmentDB.getEmployees()).extracting(Employee::getId).containsExactlyInAnyOrder(2L, 3L);
+                })
+                .assertNext(departmentDB -> {
+                    assertThat(departmentDB.getId()).isEqualTo(2L);
+                    assertThat(departmentDB.getManager().get().getId()).isEqualTo(4L);
+                    assertThat(departmentDB.getEmployees()).extracting(Employee::getId).containsExactly(5L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnOnlyExistingDepartments_whenSeveralIdsAreProvided() {
+        this.departmentDao.findAllById(List.of(2L, 100L, 4L))
+                .map(Department::getName)
+                .collectList()
+                .as(StepVerifier::create)
+                .consumeNextWith(names -> assertThat(names).containsExactlyInAnyOrder("Ventas", "Soporte"))
+                .verifyComplete();
+    }
+
     @Test
     void shouldNotReturnDepartment_whenInvalidIdIsProvided() {
         // given
@@ -202,7 +284,34 @@ class DepartmentDaoImplTest {
     }
 
     @Test
-    void shouldDeleteDepartmentWithManagerAndEmployees_whenValidDepartmentIsProvided() {
+    void shouldReturnFullTimeEmployeesOfDepartment_whenFilterIsProvided() {
+        this.departmentDao.findEmployeePage(1L, true, 0L, 10)
+                .map(Employee::getId)
+                .as(StepVerifier::create)
+                .expectNext(2L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnEmployeesOfDepartmentAfterCursor_whenAfterIdIsProvided() {
+        this.departmentDao.findEmployeePage(1L, null, 2L, 10)
+                .map(Employee::getFirstName)
+                .as(StepVerifier::create)
+                .expectNext("Vanessa")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldStreamEmployeesOfDepartment_whenFetchSizeIsSmallerThanResult() {
+        this.departmentDao.streamEmployees(1L, null, 1)
+                .map(Employee::getId)
+                .as(StepVerifier::create)
+                .expectNext(2L, 3L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldNotRewriteMembershipLinks_whenOnlyTheNameChanges() {
         // given
         Employee manager = new Employee(1L, "Martín", "Díaz", "Gerente", true);
         Employee employee1 = new Employee(2L, "Katherine", "Fernández", "Desarrollador", true);
@@ -214,28 +323,188 @@ class DepartmentDaoImplTest {
                 .manager(manager)
                 .employees(List.of(employee1, employee2))
                 .build();
+        List<String> linkVersionsBefore = this.findLinkVersions(1L);
+
+        // when
+        Mono<Department> result = this.departmentDao.save(department);
+
+        // then
+        StepVerifier.create(result)
+                .expectNext(department)
+                .verifyComplete();
+        assertThat(linkVersionsBefore).hasSize(3);
+        assertThat(this.findLinkVersions(1L)).isEqualTo(linkVersionsBefore);
+    }
+
+    @Test
+    void shouldMoveAndRemoveEmployeeLinks_whenMembershipChanges() {
+        // given
+        Employee manager = new Employee(1L, "Martín", "Díaz", "Gerente", true);
+        Employee employee1 = new Employee(2L, "Katherine", "Fernández", "Desarrollador", true);
+        Employee employee2 = new Employee(5L, "Alexander", "Villanueva", "Vendedor", true);
+
+        Department department = Department.builder()
+                .id(1L)
+                .name("Tecnología")
+                .manager(manager)
+                .employees(List.of(employee1, employee2))
+                .build();
+
+        // when
+        Mono<Department> result = this.departmentDao.save(department);
+
+        // then
+        StepVerifier.create(result)
+                .expectNext(department)
+                .verifyComplete();
 
+        this.departmentDao.findDepartmentWithManagerAndEmployees(1L)
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> assertThat(departmentDB.getEmployees())
+                        .extracting(Employee::getId)
+                        .containsExactlyInAnyOrder(2L, 5L))
+                .verifyComplete();
+        this.departmentDao.findDepartmentWithManagerAndEmployees(2L)
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> assertThat(departmentDB.getEmployees()).isEmpty())
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldMoveAddAndRemoveOnlyAffectedEmployees_whenChangingMembership() {
+        // given
+        List<String> untouchedLinks = this.findLinkVersions(1L).stream()
+                .filter(version -> version.startsWith("m1:") || version.startsWith("e3:"))
+                .toList();
+
+        // when
+        Mono<MembershipChange> result = this.departmentDao.changeEmployees(1L, List.of(5L, 6L, 3L), List.of(2L));
+
+        // then
+        StepVerifier.create(result)
+                .assertNext(change -> {
+                    assertThat(change.departmentId()).isEqualTo(1L);
+                    assertThat(change.added()).containsExactlyInAnyOrder(5L, 6L);
+                    assertThat(change.removed()).containsExactly(2L);
+                    assertThat(change.missingEmployeeIds()).isEmpty();
+                })
+                .verifyComplete();
+        assertThat(this.findLinkVersions(1L)).containsAll(untouchedLinks);
+        this.departmentDao.findDepartmentWithManagerAndEmployees(1L)
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> assertThat(departmentDB.getEmployees())
+                        .extracting(Employee::getId)
+                        .containsExactlyInAnyOrder(3L, 5L, 6L))
+                .verifyComplete();
+        this.departmentDao.findDepartmentWithManagerAndEmployees(2L)
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> assertThat(departmentDB.getEmployees()).isEmpty())
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReportMissingEmployees_whenAddingEmployeesThatDoNotExist() {
+        this.departmentDao.changeEmployees(3L, List.of(7L, 100L), List.of())
+                .as(StepVerifier::create)
+                .assertNext(change -> {
+                    assertThat(change.added()).containsExactly(7L);
+                    assertThat(change.missingEmployeeIds()).containsExactly(100L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnEmpty_whenChangingMembershipOfDepartmentThatDoesNotExist() {
+        this.departmentDao.changeEmployees(100L, List.of(7L), List.of(2L))
+                .as(StepVerifier::create)
+                .verifyComplete();
+        assertThat(this.findLinkVersions(1L)).hasSize(3);
+    }
+
+    @Test
+    void shouldMoveManagerFromAnotherDepartment_whenAssigningManager() {
+        // when
+        Mono<MembershipChange> result = this.departmentDao.assignManager(1L, 4L);
+
+        // then
+        StepVerifier.create(result)
+                .assertNext(change -> {
+                    assertThat(change.added()).containsExactly(4L);
+                    assertThat(change.removed()).containsExactly(1L);
+                })
+                .verifyComplete();
+        this.departmentDao.findDepartmentWithManagerAndEmployees(1L)
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> assertThat(departmentDB.getManager())
+                        .hasValueSatisfying(manager -> assertThat(manager.getId()).isEqualTo(4L)))
+                .verifyComplete();
+        this.departmentDao.findDepartmentWithManagerAndEmployees(2L)
+                .as(StepVerifier::create)
+                .consumeNextWith(departmentDB -> assertThat(departmentDB.getManager()).isEmpty())
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldNotChangeManager_whenAssignedEmployeeDoesNotExist() {
+        this.departmentDao.assignManager(1L, 100L)
+                .as(StepVerifier::create)
+                .assertNext(change -> {
+                    assertThat(change.added()).isEmpty();
+                    assertThat(change.missingEmployeeIds()).containsExactly(100L);
+                })
+                .verifyComplete();
+        assertThat(this.findLinkVersions(1L)).anyMatch(version -> version.startsWith("m1:"));
+        this.departmentDao.assignManager(100L, 1L)
+                .as(StepVerifier::create)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldDeleteDepartmentWithManagerAndEmployees_whenValidDepartmentIdIsProvided() {
+        // given
         this.departmentDao.findDepartmentWithManagerAndEmployees(1L)
                 .as(StepVerifier::create)
                 .consumeNextWith(departmentDB -> {
-                    assertThat(departmentDB.getId()).isEqualTo(1L);
-                    assertThat(departmentDB.getName()).isEqualTo("Tecnología");
                     assertThat(departmentDB.getManager()).isNotNull();
                     assertThat(departmentDB.getEmployees().size()).isEqualTo(2);
                 })
                 .verifyComplete();
 
         // when
-        Mono<Void> response = this.departmentDao.delete(department);
+        Mono<Long> response = this.departmentDao.deleteById(1L);
 
         // then
         StepVerifier.create(response)
-                .expectNextCount(0)
+                .expectNext(1L)
                 .verifyComplete();
-
+        assertThat(this.findLinkVersions(1L)).isEmpty();
         this.departmentDao.findById(1L)
                 .as(StepVerifier::create)
                 .expectNextCount(0)
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReturnEmpty_whenDeletingDepartmentThatDoesNotExist() {
+        // when
+        Mono<Long> response = this.departmentDao.deleteById(100L);
+
+        // then
+        StepVerifier.create(response)
+                .verifyComplete();
+    }
+
+    private List<String> findLinkVersions(Long departmentId) {
+        return this.databaseClient.sql("""
+                        SELECT 'm' || employee_id || ':' || xmin AS version FROM department_managers WHERE department_id = :departmentId
+                        UNION ALL
+                        SELECT 'e' || employee_id || ':' || xmin FROM department_employees WHERE department_id = :departmentId
+                        ORDER BY 1
+                        """)
+                .bind("departmentId", departmentId)
+                .map((row, rowMetadata) -> row.get(0, String.class))
+                .all()
+                .collectList()
+                .block();
+    }
+}
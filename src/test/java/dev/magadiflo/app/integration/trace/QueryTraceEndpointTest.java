@@ -0,0 +1,67 @@
+package dev.magadiflo.app.integration.trace;
+
+import dev.magadiflo.app.trace.QueryTrace;
+import dev.magadiflo.app.trace.QueryTraceEndpoint;
+import dev.magadiflo.app.trace.QueryTraceRecorder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.query-trace.sample-rate=1.0",
+        "app.query-trace.dump-directory=target/query-traces"
+})
+class QueryTraceEndpointTest {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private QueryTraceRecorder recorder;
+
+    @Autowired
+    private QueryTraceEndpoint endpoint;
+
+    @Test
+    void shouldRecordStatementWithoutParameterValues_whenItIsSampled() {
+        // when
+        List<Map<String, Object>> rows = this.databaseClient.sql("SELECT id FROM employees WHERE position = :position AND id > :afterId")
+                .bind("position", "Gerente")
+                .bind("afterId", 0L)
+                .fetch()
+                .all()
+                .collectList()
+                .block();
+
+        // then
+        QueryTrace trace = this.recorder.snapshot().getLast();
+        assertThat(trace.sql()).isEqualTo("SELECT id FROM employees WHERE position = $1 AND id > $2");
+        assertThat(trace.bindCount()).isEqualTo(2);
+        assertThat(trace.rows()).isEqualTo(rows.size());
+        assertThat(trace.outcome()).isEqualTo("success");
+        assertThat(trace.toString()).doesNotContain("Gerente");
+    }
+
+    @Test
+    void shouldDumpTracesAsJsonLines_whenDumpIsRequested() throws IOException {
+        // given
+        this.databaseClient.sql("SELECT 1").fetch().rowsUpdated().block();
+
+        // when
+        Map<String, Object> dump = this.endpoint.dump();
+
+        // then
+        List<String> lines = Files.readAllLines(Path.of((String) dump.get("file")));
+        assertThat(lines).hasSize((Integer) dump.get("traces"));
+        assertThat(lines.getLast()).contains("\"sql\":\"SELECT 1\"");
+    }
+}
@@ -0,0 +1,141 @@
+package dev.magadiflo.app.unit.cache;
+
+import dev.magadiflo.app.cache.DepartmentGraphCache;
+import dev.magadiflo.app.config.DepartmentCacheProperties;
+import dev.magadiflo.app.model.entity.Department;
+import dev.magadiflo.app.model.entity.Employee;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DepartmentGraphCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DepartmentGraphCache departmentGraphCache;
+    private Map<Long, AtomicInteger> loads;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.departmentGraphCache = new DepartmentGraphCache(new DepartmentCacheProperties(100, Duration.ofMinutes(5),
+                true, Duration.ofSeconds(30), Duration.ofMillis(500), Duration.ofSeconds(30)), this.meterRegistry);
+        this.loads = new ConcurrentHashMap<>();
+    }
+
+    @Test
+    void shouldLoadOnceAndReturnCopies_whenDepartmentIsReadTwice() {
+        // when
+        Department first = this.departmentGraphCache.get(1L, this::loadDepartment).block();
+        first.setName("Modificado");
+        first.getEmployees().clear();
+        Department second = this.departmentGraphCache.get(1L, this::loadDepartment).block();
+
+        // then
+        assertThat(this.loads.get(1L)).hasValue(1);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).isEqualTo("Tecnología");
+        assertThat(second.getEmployees()).extracting(Employee::getId).containsExactly(2L, 3L);
+        assertThat(this.meterRegistry.get("cache.gets").tag("cache", DepartmentGraphCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(this.meterRegistry.get("cache.gets").tag("cache", DepartmentGraphCache.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCacheMissingDepartment_whenLoaderIsEmpty() {
+        this.departmentGraphCache.get(100L, this::loadDepartment)
+                .as(StepVerifier::create)
+                .verifyComplete();
+        this.departmentGraphCache.get(100L, this::loadDepartment)
+                .as(StepVerifier::create)
+                .verifyComplete();
+
+        assertThat(this.loads.get(100L)).hasValue(2);
+    }
+
+    @Test
+    void shouldEvictOnlyDepartmentsContainingEmployee_whenEmployeeIsEvicted() {
+        // given
+        this.departmentGraphCache.get(1L, this::loadDepartment).block();
+        this.departmentGraphCache.get(2L, this::loadDepartment).block();
+
+        // when
+        this.departmentGraphCache.evictEmployee(3L).block();
+        this.departmentGraphCache.get(1L, this::loadDepartment).block();
+        this.departmentGraphCache.get(2L, this::loadDepartment).block();
+
+        // then
+        assertThat(this.loads.get(1L)).hasValue(2);
+        assertThat(this.loads.get(2L)).hasValue(1);
+    }
+
+    @Test
+    void shouldEvictPreviousDepartmentOfMovedEmployee_whenDepartmentIsEvicted() {
+        // given
+        this.departmentGraphCache.get(1L, this::loadDepartment).block();
+        this.departmentGraphCache.get(2L, this::loadDepartment).block();
+
+        // when
+        this.departmentGraphCache.evictDepartment(2L, List.of(4L, 5L, 2L)).block();
+        this.departmentGraphCache.get(1L, this::loadDepartment).block();
+        this.departmentGraphCache.get(2L, this::loadDepartment).block();
+
+        // then
+        assertThat(this.loads.get(1L)).hasValue(2);
+        assertThat(this.loads.get(2L)).hasValue(2);
+    }
+
+    @Test
+    void shouldKeepEmployeeIndex_whenDepartmentIsReloadedRightAfterInvalidation() {
+        // given
+        this.departmentGraphCache.get(1L, this::loadDepartment).block();
+        this.departmentGraphCache.invalidateDepartment(1L);
+        this.departmentGraphCache.get(1L, this::loadDepartment).block();
+
+        // when
+        this.departmentGraphCache.invalidateEmployee(3L);
+        this.departmentGraphCache.get(1L, this::loadDepartment).block();
+
+        // then
+        assertThat(this.loads.get(1L)).hasValue(3);
+    }
+
+    @Test
+    void shouldKeepSharedLoad_whenOneWaiterCancels() {
+        // given
+        Sinks.One<Department> pending = Sinks.one();
+        Disposable cancelled = this.departmentGraphCache.get(3L, id -> pending.asMono()).subscribe();
+
+        // when
+        StepVerifier.create(this.departmentGraphCache.get(3L, id -> pending.asMono()))
+                .then(cancelled::dispose)
+                .then(() -> pending.tryEmitValue(new Department(3L, "Legal", null, new ArrayList<>())))
+                .consumeNextWith(department -> assertThat(department.getName()).isEqualTo("Legal"))
+                .verifyComplete();
+    }
+
+    private Mono<Department> loadDepartment(Long departmentId) {
+        this.loads.computeIfAbsent(departmentId, id -> new AtomicInteger()).incrementAndGet();
+        return switch (departmentId.intValue()) {
+            case 1 -> Mono.just(new Department(1L, "Tecnología", new Employee(1L, "Martín", "Díaz", "Gerente", true),
+                    new ArrayList<>(List.of(new Employee(2L, "Katherine", "Fernández", "Desarrollador", true),
+                            new Employee(3L, "Vanessa", "Bello", "Diseñador", false)))));
+            case 2 -> Mono.just(new Department(2L, "Ventas", new Employee(4L, "Melissa", "Peralta", "Gerente", true),
+                    new ArrayList<>(List.of(new Employee(5L, "Alexander", "Villanueva", "Vendedor", true)))));
+            default -> Mono.empty();
+        };
+    }
+}
@@ -1,17 +1,27 @@
 package dev.magadiflo.app.unit.controller;
 
+import dev.magadiflo.app.config.ServerTimingConfig;
+import dev.magadiflo.app.config.ServerTimingProperties;
 import dev.magadiflo.app.controller.EmployeeController;
 import dev.magadiflo.app.exception.EmployeeNotFoundException;
 import dev.magadiflo.app.handler.ErrorResponse;
+import dev.magadiflo.app.model.dto.BatchGetResult;
 import dev.magadiflo.app.model.dto.CreateEmployeeRequest;
+import dev.magadiflo.app.model.dto.KeysetPage;
 import dev.magadiflo.app.model.entity.Employee;
 import dev.magadiflo.app.service.EmployeeService;
+import dev.magadiflo.app.timing.ServerTiming;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -19,11 +29,14 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @Slf4j
 @WebFluxTest(EmployeeController.class)
+@Import(ServerTimingConfig.class)
+@EnableConfigurationProperties(ServerTimingProperties.class)
 class EmployeeControllerTest {
 
     @Autowired
@@ -37,7 +50,8 @@ class EmployeeControllerTest {
         // given
         Employee e1 = new Employee(1L, "Martín", "Díaz", "Desarrollador", true);
         Employee e2 = new Employee(2L, "Betania", "Velez", "Abogada", false);
-        when(this.employeeService.getAllEmployees(isNull(), isNull())).thenReturn(Flux.just(e1, e2));
+        when(this.employeeService.getEmployees(isNull(), isNull(), isNull(), isNull()))
+                .thenReturn(Mono.just(new KeysetPage<>(List.of(e1, e2), null)));
 
         // when
         WebTestClient.ResponseSpec response = this.webTestClient.get()
@@ -46,6 +60,7 @@ class EmployeeControllerTest {
 
         // then
         response.expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.LINK)
                 .expectBodyList(Employee.class)
                 .hasSize(2)
                 .consumeWith(listEntityExchangeResult -> {
@@ -54,7 +69,56 @@ class EmployeeControllerTest {
                     assertThat(responseBody.get(0).getId()).isEqualTo(e1.getId());
                     assertThat(responseBody.get(1).getId()).isEqualTo(e2.getId());
                 });
-        verify(this.employeeService).getAllEmployees(isNull(), isNull());
+        verify(this.employeeService).getEmployees(isNull(), isNull(), isNull(), isNull());
+    }
+
+    @Test
+    void shouldReturnNextPageLink_whenMoreEmployeesExist() {
+        // given
+        Employee e1 = new Employee(1L, "Martín", "Díaz", "Desarrollador", true);
+        String nextCursor = KeysetPage.encodeCursor(1L);
+        when(this.employeeService.getEmployees(eq("Desarrollador"), eq(true), isNull(), eq(1)))
+                .thenReturn(Mono.just(new KeysetPage<>(List.of(e1), nextCursor)));
+
+        // when
+        WebTestClient.ResponseSpec response = this.webTestClient.get()
+                .uri("/api/v1/employees?position=Desarrollador&fullTime=true&size=1")
+                .exchange();
+
+        // then
+        response.expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.LINK, link -> {
+                    assertThat(link).contains("position=Desarrollador", "fullTime=true", "size=1", "cursor=" + nextCursor);
+                    assertThat(link).endsWith("rel=\"next\"");
+                })
+                .expectBodyList(Employee.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void shouldStreamAllEmployeesAsNdjson_whenNdjsonIsAccepted() {
+        // given
+        Employee e1 = new Employee(1L, "Martín", "Díaz", "Desarrollador", true);
+        Employee e2 = new Employee(2L, "Betania", "Velez", "Abogada", false);
+        when(this.employeeService.getAllEmployees(isNull(), eq(true))).thenReturn(Flux.just(e1, e2));
+
+        // when
+        WebTestClient.ResponseSpec response = this.webTestClient.get()
+                .uri("/api/v1/employees?fullTime=true")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange();
+
+        // then
+        response.expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Employee.class)
+                .getResponseBody()
+                .map(Employee::getId)
+                .as(StepVerifier::create)
+                .expectNext(1L, 2L)
+                .verifyComplete();
+        verify(this.employeeService).getAllEmployees(isNull(), eq(true));
+        verify(this.employeeService, never()).getEmployees(any(), any(), any(), any());
     }
 
     @Test
@@ -82,6 +146,40 @@ class EmployeeControllerTest {
         verify(this.employeeService).showEmployee(anyLong());
     }
 
+    @Test
+    void shouldAddServerTimingHeader_whenRequestAsksForIt() {
+        // given
+        Employee e1 = new Employee(1L, "Martín", "Díaz", "Desarrollador", true);
+        when(this.employeeService.showEmployee(anyLong())).thenReturn(Mono.just(e1));
+
+        // when
+        WebTestClient.ResponseSpec response = this.webTestClient.get()
+                .uri("/api/v1/employees/{employeeId}", 1)
+                .header("X-Server-Timing", "1")
+                .exchange();
+
+        // then
+        response.expectStatus().isOk()
+                .expectHeader().value(ServerTiming.HEADER, serverTiming -> assertThat(serverTiming)
+                        .contains("db;dur=", "pool;dur=", "mapping;dur=", "serialization;dur=", "total;dur="));
+    }
+
+    @Test
+    void shouldNotAddServerTimingHeader_whenRequestIsNotSampled() {
+        // given
+        Employee e1 = new Employee(1L, "Martín", "Díaz", "Desarrollador", true);
+        when(this.employeeService.showEmployee(anyLong())).thenReturn(Mono.just(e1));
+
+        // when
+        WebTestClient.ResponseSpec response = this.webTestClient.get()
+                .uri("/api/v1/employees/{employeeId}", 1)
+                .exchange();
+
+        // then
+        response.expectStatus().isOk()
+                .expectHeader().doesNotExist(ServerTiming.HEADER);
+    }
+
     @Test
     void shouldReturnNotFoundMessage_whenInvalidIdIsProvided() {
         // given
@@ -103,6 +201,33 @@ class EmployeeControllerTest {
         verify(this.employeeService).showEmployee(anyLong());
     }
 
+    @Test
+    void shouldReturnEmployeesInRequestOrderWithMissingIdsInline_whenIdsAreProvided() {
+        // given
+        Employee e2 = new Employee(2L, "Betania", "Velez", "Abogada", false);
+        when(this.employeeService.getEmployeesById(List.of(2L, 100L))).thenReturn(Flux.just(
+                new BatchGetResult<>(2L, BatchGetResult.Status.FOUND, e2, null),
+                new BatchGetResult<>(100L, BatchGetResult.Status.NOT_FOUND, null, "El empleado con id 100 no fue encontrado")
+        ));
+
+        // when
+        WebTestClient.ResponseSpec response = this.webTestClient.get()
+                .uri("/api/v1/employees?ids=2,100")
+                .exchange();
+
+        // then
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].status").isEqualTo("FOUND")
+                .jsonPath("$[0].data.firstName").isEqualTo("Betania")
+                .jsonPath("$[1].id").isEqualTo(100)
+                .jsonPath("$[1].status").isEqualTo("NOT_FOUND")
+                .jsonPath("$[1].data").doesNotExist()
+                .jsonPath("$[1].message").isEqualTo("El empleado con id 100 no fue encontrado");
+        verify(this.employeeService).getEmployeesById(List.of(2L, 100L));
+    }
+
     @Test
     void shouldSaveEmployee_whenValidEmployeeIsProvided() {
         // given
@@ -0,0 +1,100 @@
+package dev.magadiflo.app.unit.loader;
+
+import dev.magadiflo.app.loader.BatchLoader;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchLoaderTest {
+
+    private static final Map<Long, String> DEPARTMENTS = Map.of(1L, "Tecnología", 2L, "Ventas", 3L, "Legal");
+
+    private SimpleMeterRegistry meterRegistry;
+    private List<List<Long>> batches;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.batches = new CopyOnWriteArrayList<>();
+    }
+
+    @Test
+    void shouldResolveKeysWithOneQuery_whenTheyArriveWithinTheWindow() {
+        // given
+        BatchLoader<Long, String> batchLoader = this.batchLoader(Duration.ofMillis(50), 100);
+
+        // when
+        Mono<List<String>> result = Flux.just(1L, 2L, 100L, 1L)
+                .flatMapSequential(id -> batchLoader.load(id).defaultIfEmpty("(vacío)"))
+                .collectList();
+
+        // then
+        StepVerifier.create(result)
+                .expectNext(List.of("Tecnología", "Ventas", "(vacío)", "Tecnología"))
+                .verifyComplete();
+        assertThat(this.batches).containsExactly(List.of(1L, 2L, 100L));
+        DistributionSummary batchSizes = this.meterRegistry.get("batch.loader.size").summary();
+        assertThat(batchSizes.count()).isEqualTo(1);
+        assertThat(batchSizes.totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldDispatchWithoutWaiting_whenBatchIsFull() {
+        // given
+        BatchLoader<Long, String> batchLoader = this.batchLoader(Duration.ofMinutes(1), 2);
+
+        // when
+        Mono<List<String>> result = Flux.just(1L, 2L, 3L)
+                .flatMapSequential(id -> batchLoader.load(id).timeout(Duration.ofSeconds(1), Mono.just("(pendiente)")))
+                .collectList();
+
+        // then
+        StepVerifier.create(result)
+                .expectNext(List.of("Tecnología", "Ventas", "(pendiente)"))
+                .verifyComplete();
+        assertThat(this.batches).containsExactly(List.of(1L, 2L));
+    }
+
+    @Test
+    void shouldPropagateErrorToEveryCaller_whenQueryFails() {
+        // given
+        BatchLoader<Long, String> batchLoader = new BatchLoader<>("test",
+                ids -> Flux.error(new IllegalStateException("Conexión cerrada")), value -> 0L,
+                Duration.ofMillis(10), 100, this.meterRegistry);
+
+        // when
+        Flux<String> result = Flux.merge(batchLoader.load(1L), batchLoader.load(2L));
+
+        // then
+        StepVerifier.create(result)
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(1));
+    }
+
+    private BatchLoader<Long, String> batchLoader(Duration window, int maxBatchSize) {
+        return new BatchLoader<>("test",
+                ids -> {
+                    this.batches.add(ids);
+                    return Flux.fromIterable(ids)
+                            .filter(DEPARTMENTS::containsKey)
+                            .map(DEPARTMENTS::get);
+                },
+                value -> DEPARTMENTS.entrySet().stream()
+                        .filter(entry -> entry.getValue().equals(value))
+                        .map(Map.Entry::getKey)
+                        .findFirst()
+                        .orElseThrow(),
+                window, maxBatchSize, this.meterRegistry);
+    }
+}
@@ -0,0 +1,124 @@
+package dev.magadiflo.app.unit.loader;
+
+import dev.magadiflo.app.loader.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<Long, String> singleFlight;
+    private Sinks.One<String> result;
+    private AtomicInteger subscriptions;
+    private AtomicInteger cancellations;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.singleFlight = new SingleFlight<>("test", this.meterRegistry);
+        this.result = Sinks.one();
+        this.subscriptions = new AtomicInteger();
+        this.cancellations = new AtomicInteger();
+    }
+
+    @Test
+    void shouldShareOneLoad_whenSameKeyIsRequestedConcurrently() {
+        // given
+        List<String> firstValues = new ArrayList<>();
+        List<String> secondValues = new ArrayList<>();
+        this.singleFlight.execute(1L, this::load).subscribe(firstValues::add);
+        this.singleFlight.execute(1L, this::load).subscribe(secondValues::add);
+
+        // when
+        this.result.tryEmitValue("Tecnología");
+
+        // then
+        assertThat(firstValues).containsExactly("Tecnología");
+        assertThat(secondValues).containsExactly("Tecnología");
+        assertThat(this.subscriptions).hasValue(1);
+        assertThat(this.count("executed")).isEqualTo(1);
+        assertThat(this.count("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLoadAgain_whenPreviousLoadHasFinished() {
+        this.result.tryEmitValue("Tecnología");
+
+        this.singleFlight.execute(1L, this::load).as(StepVerifier::create).expectNext("Tecnología").verifyComplete();
+        this.singleFlight.execute(1L, this::load).as(StepVerifier::create).expectNext("Tecnología").verifyComplete();
+
+        assertThat(this.subscriptions).hasValue(2);
+        assertThat(this.count("executed")).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepLoading_whenOnlyOneCallerCancels() {
+        // given
+        Disposable cancelled = this.singleFlight.execute(1L, this::load).subscribe();
+
+        // when
+        StepVerifier.create(this.singleFlight.execute(1L, this::load))
+                .then(cancelled::dispose)
+                .then(() -> this.result.tryEmitValue("Tecnología"))
+                .expectNext("Tecnología")
+                .verifyComplete();
+
+        // then
+        assertThat(this.cancellations).hasValue(0);
+        assertThat(this.subscriptions).hasValue(1);
+    }
+
+    @Test
+    void shouldCancelLoad_whenEveryCallerCancels() {
+        // given
+        Disposable first = this.singleFlight.execute(1L, this::load).subscribe();
+        Disposable second = this.singleFlight.execute(1L, this::load).subscribe();
+
+        // when
+        first.dispose();
+        second.dispose();
+
+        // then
+        assertThat(this.cancellations).hasValue(1);
+        this.result.tryEmitValue("Tecnología");
+        this.singleFlight.execute(1L, this::load).as(StepVerifier::create).expectNext("Tecnología").verifyComplete();
+        assertThat(this.subscriptions).hasValue(2);
+    }
+
+    @Test
+    void shouldPropagateErrorToEveryCaller_whenLoadFails() {
+        Mono<String> first = this.singleFlight.execute(1L, this::load);
+        Mono<String> second = this.singleFlight.execute(1L, this::load);
+
+        StepVerifier.create(first)
+                .then(() -> StepVerifier.create(second)
+                        .then(() -> this.result.tryEmitError(new IllegalStateException("Conexión cerrada")))
+                        .expectError(IllegalStateException.class)
+                        .verify(Duration.ofSeconds(1)))
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(1));
+        assertThat(this.subscriptions).hasValue(1);
+    }
+
+    private Mono<String> load(Long id) {
+        return this.result.asMono()
+                .doOnSubscribe(subscription -> this.subscriptions.incrementAndGet())
+                .doOnCancel(this.cancellations::incrementAndGet);
+    }
+
+    private double count(String result) {
+        return this.meterRegistry.get("single.flight.calls").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,88 @@
+package dev.magadiflo.app.unit.metrics;
+
+import dev.magadiflo.app.metrics.QueryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private QueryMetrics queryMetrics;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.queryMetrics = new QueryMetrics(this.meterRegistry);
+    }
+
+    @Test
+    void shouldRecordLatencyAndRows_whenFluxCompletes() {
+        // given
+        Flux<String> query = Flux.just("Tecnología", "Ventas", "Legal")
+                .transform(this.queryMetrics.flux("department.findAll"));
+
+        // when
+        StepVerifier.create(query).expectNextCount(3).verifyComplete();
+
+        // then
+        assertThat(this.timerCount("department.findAll", "success")).isEqualTo(1);
+        assertThat(this.meterRegistry.get("db.query.rows").tag("name", "department.findAll").summary().totalAmount())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void shouldCountSuccess_whenMonoIsCancelledAfterFirstRow() {
+        // given
+        Mono<String> query = Flux.just("Tecnología", "Ventas")
+                .transform(this.queryMetrics.flux("department.findByName"))
+                .next();
+
+        // when
+        StepVerifier.create(query).expectNext("Tecnología").verifyComplete();
+
+        // then
+        assertThat(this.timerCount("department.findByName", "success")).isEqualTo(1);
+        assertThat(this.timerCount("department.findByName", "cancelled")).isZero();
+    }
+
+    @Test
+    void shouldCountErrorByException_whenQueryFails() {
+        // given
+        Mono<Long> query = Mono.<Long>error(new IllegalStateException("conexión cerrada"))
+                .transform(this.queryMetrics.rowsUpdated("department.deleteById"));
+
+        // when
+        StepVerifier.create(query).verifyError(IllegalStateException.class);
+
+        // then
+        assertThat(this.timerCount("department.deleteById", "error")).isEqualTo(1);
+        assertThat(this.meterRegistry.get("db.query.errors")
+                .tag("name", "department.deleteById")
+                .tag("exception", "IllegalStateException")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRecordRowsUpdated_whenStatementModifiesRows() {
+        // given
+        Mono<Long> query = Mono.just(4L).transform(this.queryMetrics.rowsUpdated("department.save.syncEmployees.delete"));
+
+        // when
+        StepVerifier.create(query).expectNext(4L).verifyComplete();
+
+        // then
+        assertThat(this.meterRegistry.get("db.query.rows")
+                .tag("name", "department.save.syncEmployees.delete")
+                .summary().totalAmount()).isEqualTo(4);
+    }
+
+    private long timerCount(String name, String outcome) {
+        return this.meterRegistry.get("db.query").tag("name", name).tag("outcome", outcome).timer().count();
+    }
+}
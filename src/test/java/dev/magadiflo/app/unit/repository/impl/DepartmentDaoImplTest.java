@@ -1,8 +1,12 @@
 package dev.magadiflo.app.unit.repository.impl;
 
+import dev.magadiflo.app.config.DepartmentDaoProperties;
+import dev.magadiflo.app.metrics.QueryMetrics;
 import dev.magadiflo.app.model.entity.Department;
+import dev.magadiflo.app.model.entity.Employee;
 import dev.magadiflo.app.repository.EmployeeRepository;
 import dev.magadiflo.app.dao.impl.DepartmentDaoImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import org.junit.jupiter.api.Test;
@@ -10,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.FetchSpec;
@@ -18,8 +23,10 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiFunction;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,27 +41,42 @@ class DepartmentDaoImplTest {
     @Mock
     private DatabaseClient.GenericExecuteSpec genericExecuteSpec;
 
+    @Mock
+    private RowsFetchSpec<Object> joinedRowsFetchSpec;
+
     @Mock
     private FetchSpec<Map<String, Object>> fetchSpec;
 
+    @Mock
+    private RowMetadata rowMetadata;
+
     @Mock
     private RowsFetchSpec<Department> rowsFetchSpec;
 
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Spy
+    private DepartmentDaoProperties properties = new DepartmentDaoProperties(DepartmentDaoProperties.ReadStrategy.JOIN,
+                DepartmentDaoProperties.WriteStrategy.STATEMENT_CHAIN, 2);
+
+    @Spy
+    private QueryMetrics queryMetrics = new QueryMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private DepartmentDaoImpl departmentDao;
 
     @Test
     void shouldReturnFluxOfDepartments_whenDataExists() {
         // given
-        Map<String, Object> row1 = Map.of("d_id", 1L, "d_name", "Legal");
-        Map<String, Object> row2 = Map.of("d_id", 2L, "d_name", "Ventas");
-        Flux<Map<String, Object>> mockResult = Flux.just(row1, row2);
+        Row row1 = this.departmentRow(1L, "Legal");
+        Row row2 = this.departmentRow(2L, "Ventas");
         when(this.databaseClient.sql(anyString())).thenReturn(this.genericExecuteSpec);
-        when(this.genericExecuteSpec.fetch()).thenReturn(this.fetchSpec);
-        when(this.fetchSpec.all()).thenReturn(mockResult);
+        when(this.genericExecuteSpec.map(Mockito.<BiFunction<Row, RowMetadata, Object>>any())).thenAnswer(invocation -> {
+            BiFunction<Row, RowMetadata, Object> mapper = invocation.getArgument(0);
+            when(this.joinedRowsFetchSpec.all()).thenReturn(Flux.just(row1, row2).map(row -> mapper.apply(row, this.rowMetadata)));
+            return this.joinedRowsFetchSpec;
+        });
 
         // when
         Flux<Department> result = this.departmentDao.findAll();
@@ -64,14 +86,16 @@ class DepartmentDaoImplTest {
                 .consumeNextWith(departmentDB -> {
                     assertThat(departmentDB.getId()).isEqualTo(1L);
                     assertThat(departmentDB.getName()).isEqualTo("Legal");
+                    assertThat(departmentDB.getManager()).isEmpty();
+                    assertThat(departmentDB.getEmployees()).isEmpty();
                 }).consumeNextWith(departmentDB -> {
                     assertThat(departmentDB.getId()).isEqualTo(2L);
                     assertThat(departmentDB.getName()).isEqualTo("Ventas");
                 })
                 .verifyComplete();
         verify(this.databaseClient).sql(anyString());
-        verify(this.genericExecuteSpec).fetch();
-        verify(this.fetchSpec).all();
+        verify(this.genericExecuteSpec).map(Mockito.<BiFunction<Row, RowMetadata, Object>>any());
+        verify(this.joinedRowsFetchSpec).all();
     }
 
     @Test
@@ -101,4 +125,45 @@ class DepartmentDaoImplTest {
         verify(this.genericExecuteSpec).map(Mockito.<BiFunction<Row, RowMetadata, Department>>any());
         verify(this.rowsFetchSpec).first();
     }
+
+    @Test
+    void shouldSyncEmployeeLinksInChunks_whenDepartmentIsSaved() {
+        // given
+        List<Employee> employees = LongStream.rangeClosed(1, 5)
+                .mapToObj(id -> Employee.builder().id(id).firstName("Nombre").lastName("Apellido").position("Puesto").build())
+                .toList();
+        Department department = Department.builder()
+                .id(1L)
+                .name("Tecnología")
+                .employees(employees)
+                .build();
+
+        when(this.databaseClient.sql(anyString())).thenReturn(this.genericExecuteSpec);
+        when(this.genericExecuteSpec.bind(anyString(), any())).thenReturn(this.genericExecuteSpec);
+        when(this.genericExecuteSpec.fetch()).thenReturn(this.fetchSpec);
+        when(this.fetchSpec.rowsUpdated()).thenReturn(Mono.just(1L));
+        when(this.employeeRepository.upsertAll(employees)).thenReturn(Flux.fromIterable(employees));
+
+        // when
+        Mono<Department> result = this.departmentDao.save(department);
+
+        // then
+        StepVerifier.create(result)
+                .expectNext(department)
+                .verifyComplete();
+        verify(this.databaseClient).sql(startsWith("DELETE FROM department_employees"));
+        verify(this.databaseClient, times(3)).sql(startsWith("INSERT INTO department_employees"));
+        verify(this.genericExecuteSpec).bind("employeeIds", new Long[]{1L, 2L, 3L, 4L, 5L});
+        verify(this.genericExecuteSpec).bind("employeeIds", new Long[]{1L, 2L});
+        verify(this.genericExecuteSpec).bind("employeeIds", new Long[]{3L, 4L});
+        verify(this.genericExecuteSpec).bind("employeeIds", new Long[]{5L});
+        verify(this.employeeRepository).upsertAll(employees);
+    }
+
+    private Row departmentRow(Long departmentId, String departmentName) {
+        Row row = mock(Row.class);
+        when(row.get(0, Long.class)).thenReturn(departmentId);
+        when(row.get(1, String.class)).thenReturn(departmentName);
+        return row;
+    }
 }
\ No newline at end of file
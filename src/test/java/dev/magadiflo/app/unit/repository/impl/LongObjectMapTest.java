@@ -0,0 +1,69 @@
+package dev.magadiflo.app.unit.repository.impl;
+
+import dev.magadiflo.app.dao.impl.LongObjectMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongObjectMapTest {
+
+    @Test
+    void shouldKeepEveryEntry_whenMapGrowsBeyondInitialCapacity() {
+        // given
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        // when
+        for (long key = 0; key < 10_000; key++) {
+            map.put(key * 31, "value-" + key);
+        }
+
+        // then
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long key = 0; key < 10_000; key++) {
+            assertThat(map.get(key * 31)).isEqualTo("value-" + key);
+        }
+        assertThat(map.get(7L)).isNull();
+        assertThat(map.containsKey(0L)).isTrue();
+    }
+
+    @Test
+    void shouldReplaceValue_whenKeyAlreadyExists() {
+        // given
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "Legal");
+
+        // when
+        String previous = map.put(1L, "Ventas");
+
+        // then
+        assertThat(previous).isEqualTo("Legal");
+        assertThat(map.get(1L)).isEqualTo("Ventas");
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldGroupValues_whenComputeIfAbsentIsUsed() {
+        // given
+        LongObjectMap<List<Long>> map = new LongObjectMap<>(2);
+
+        // when
+        map.computeIfAbsent(1L, key -> new ArrayList<>()).add(10L);
+        map.computeIfAbsent(2L, key -> new ArrayList<>()).add(20L);
+        map.computeIfAbsent(1L, key -> new ArrayList<>()).add(11L);
+
+        // then
+        assertThat(map.get(1L)).containsExactly(10L, 11L);
+        assertThat(map.get(2L)).containsExactly(20L);
+    }
+
+    @Test
+    void shouldRejectNullValues() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        assertThatThrownBy(() -> map.put(1L, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
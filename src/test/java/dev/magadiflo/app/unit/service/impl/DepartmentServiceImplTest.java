@@ -1,14 +1,27 @@
 package dev.magadiflo.app.unit.service.impl;
 
+import dev.magadiflo.app.config.DepartmentMembershipProperties;
+import dev.magadiflo.app.config.PaginationProperties;
+import dev.magadiflo.app.config.StreamingProperties;
 import dev.magadiflo.app.dao.DepartmentDao;
 import dev.magadiflo.app.exception.DepartmentAlreadyExistsException;
+import dev.magadiflo.app.exception.DepartmentNotFoundException;
+import dev.magadiflo.app.exception.EmployeeNotFoundException;
+import dev.magadiflo.app.exception.InvalidBatchRequestException;
+import dev.magadiflo.app.exception.InvalidMembershipRequestException;
+import dev.magadiflo.app.model.dto.BatchGetResult;
 import dev.magadiflo.app.model.dto.CreateDepartmentRequest;
+import dev.magadiflo.app.model.dto.KeysetPage;
+import dev.magadiflo.app.model.dto.MembershipChange;
+import dev.magadiflo.app.model.dto.MembershipRequest;
 import dev.magadiflo.app.model.entity.Department;
+import dev.magadiflo.app.model.entity.Employee;
 import dev.magadiflo.app.service.impl.DepartmentServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -18,6 +31,8 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -27,6 +42,15 @@ class DepartmentServiceImplTest {
     @Mock
     private DepartmentDao departmentDao;
 
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties(2, 2);
+
+    @Spy
+    private StreamingProperties streamingProperties = new StreamingProperties(64);
+
+    @Spy
+    private DepartmentMembershipProperties membershipProperties = new DepartmentMembershipProperties(3);
+
     @InjectMocks
     private DepartmentServiceImpl departmentService;
 
@@ -38,7 +62,7 @@ class DepartmentServiceImplTest {
                 new Department(2L, "Sales", null, List.of()),
                 new Department(3L, "Business", null, List.of())
         );
-        when(this.departmentDao.findAll()).thenReturn(departments);
+        when(this.departmentDao.streamAll(anyInt())).thenReturn(departments);
 
         // when
         Flux<Department> result = this.departmentService.getAllDepartments();
@@ -47,13 +71,122 @@ class DepartmentServiceImplTest {
         StepVerifier.create(result)
                 .expectNextCount(3)
                 .verifyComplete();
-        verify(this.departmentDao).findAll();
+        verify(this.departmentDao).streamAll(64);
+    }
+
+    @Test
+    void shouldReturnDepartmentsInRequestOrder_whenSeveralIdsAreProvided() {
+        // given
+        when(this.departmentDao.findDepartmentsWithManagerAndEmployees(List.of(2L, 100L))).thenReturn(Flux.just(
+                new Department(2L, "Sales", null, List.of())
+        ));
+
+        // when
+        Flux<BatchGetResult<Department>> result = this.departmentService.getDepartmentsWithManagerAndEmployees(List.of(2L, 100L, 2L));
+
+        // then
+        StepVerifier.create(result)
+                .assertNext(item -> {
+                    assertThat(item.status()).isEqualTo(BatchGetResult.Status.FOUND);
+                    assertThat(item.data().getName()).isEqualTo("Sales");
+                })
+                .assertNext(item -> {
+                    assertThat(item.id()).isEqualTo(100L);
+                    assertThat(item.status()).isEqualTo(BatchGetResult.Status.NOT_FOUND);
+                    assertThat(item.message()).isEqualTo("El departamento con id 100 no fue encontrado");
+                })
+                .assertNext(item -> assertThat(item.data().getId()).isEqualTo(2L))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldThrowInvalidBatchRequestException_whenMoreIdsThanMaxSizeAreProvided() {
+        // when
+        Flux<BatchGetResult<Department>> result = this.departmentService.getDepartmentsWithManagerAndEmployees(List.of(1L, 2L, 3L));
+
+        // then
+        StepVerifier.create(result)
+                .expectError(InvalidBatchRequestException.class)
+                .verify();
+        verifyNoInteractions(this.departmentDao);
+    }
+
+    @Test
+    void shouldReturnPageOfEmployeesWithNextCursor_whenDepartmentHasMoreEmployees() {
+        // given
+        when(this.departmentDao.findById(1L)).thenReturn(Mono.just(new Department(1L, "HR", null, List.of())));
+        when(this.departmentDao.findEmployeePage(1L, true, 0L, 3)).thenReturn(Flux.just(
+                new Employee(2L, "Katherine", "Fernández", "Desarrollador", true),
+                new Employee(5L, "Alexander", "Villanueva", "Vendedor", true),
+                new Employee(7L, "Jorge", "Gayoso", "Teacher", true)
+        ));
+
+        // when
+        Mono<KeysetPage<Employee>> result = this.departmentService.getEmployeesFromDepartment(1L, true, null, null);
+
+        // then
+        StepVerifier.create(result)
+                .assertNext(page -> {
+                    assertThat(page.content()).extracting(Employee::getId).containsExactly(2L, 5L);
+                    assertThat(KeysetPage.decodeCursor(page.nextCursor())).isEqualTo(5L);
+                })
+                .verifyComplete();
+        verify(this.departmentDao).findEmployeePage(1L, true, 0L, 3);
+    }
+
+    @Test
+    void shouldThrowDepartmentNotFoundException_whenStreamingEmployeesOfMissingDepartment() {
+        // given
+        when(this.departmentDao.findById(100L)).thenReturn(Mono.empty());
+        when(this.departmentDao.streamEmployees(100L, null, 64)).thenReturn(Flux.empty());
+
+        // when
+        Flux<Employee> result = this.departmentService.getAllEmployeesFromDepartment(100L, null);
+
+        // then
+        StepVerifier.create(result)
+                .expectError(DepartmentNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldStreamEmployeesFromDepartment_whenDepartmentExists() {
+        // given
+        when(this.departmentDao.findById(1L)).thenReturn(Mono.just(new Department(1L, "HR", null, List.of())));
+        when(this.departmentDao.streamEmployees(1L, false, 64)).thenReturn(Flux.just(
+                new Employee(3L, "Vanessa", "Bello", "Diseñador", false)
+        ));
+
+        // when
+        Flux<Employee> result = this.departmentService.getAllEmployeesFromDepartment(1L, false);
+
+        // then
+        StepVerifier.create(result)
+                .assertNext(employee -> assertThat(employee.getId()).isEqualTo(3L))
+                .verifyComplete();
+        verify(this.departmentDao).streamEmployees(1L, false, 64);
+    }
+
+    @Test
+    void shouldCreateDepartment_whenNameIsAvailable() {
+        // given
+        when(this.departmentDao.insertIfAbsent("HR")).thenReturn(Mono.just(new Department(5L, "HR", null, List.of())));
+
+        // when
+        Mono<Department> result = this.departmentService.createDepartment(new CreateDepartmentRequest("HR"));
+
+        // then
+        StepVerifier.create(result)
+                .assertNext(departmentDB -> assertThat(departmentDB.getId()).isEqualTo(5L))
+                .verifyComplete();
+        verify(this.departmentDao, never()).findByName(anyString());
+        verify(this.departmentDao, never()).save(any(Department.class));
     }
 
     @Test
     void shouldThrowDepartmentAlreadyExistsException_whenDepartmentAlreadyExists() {
         // given
-        when(this.departmentDao.findByName(anyString())).thenReturn(Mono.just(new Department(1L, "HR", null, List.of())));
+        when(this.departmentDao.insertIfAbsent(anyString())).thenReturn(Mono.empty());
 
         // when
         Mono<Department> result = this.departmentService.createDepartment(new CreateDepartmentRequest("HR"));
@@ -67,4 +200,136 @@ class DepartmentServiceImplTest {
                 .verify();
         verify(this.departmentDao, never()).save(any(Department.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReadGraphWithoutCache_whenUpdatingDepartment() {
+        // given
+        Department departmentDB = new Department(1L, "Tecnología", null, List.of());
+        Department department = new Department(null, "TI", null, List.of());
+        when(this.departmentDao.findDepartmentWithManagerAndEmployeesUncached(1L)).thenReturn(Mono.just(departmentDB));
+        when(this.departmentDao.save(departmentDB)).thenReturn(Mono.just(departmentDB));
+
+        // when
+        Mono<Department> result = this.departmentService.updateDepartment(1L, department);
+
+        // then
+        StepVerifier.create(result)
+                .assertNext(departmentUpdated -> assertThat(departmentUpdated.getName()).isEqualTo("TI"))
+                .verifyComplete();
+        verify(this.departmentDao, never()).findDepartmentWithManagerAndEmployees(anyLong());
+    }
+
+    @Test
+    void shouldDeleteDepartmentWithoutLoadingItsGraph_whenDepartmentExists() {
+        // given
+        when(this.departmentDao.deleteById(1L)).thenReturn(Mono.just(1L));
+
+        // when
+        Mono<Void> result = this.departmentService.deleteDepartment(1L);
+
+        // then
+        StepVerifier.create(result)
+                .verifyComplete();
+        verify(this.departmentDao).deleteById(1L);
+        verify(this.departmentDao, never()).findDepartmentWithManagerAndEmployees(anyLong());
+    }
+
+    @Test
+    void shouldThrowDepartmentNotFoundException_whenDeletingMissingDepartment() {
+        // given
+        when(this.departmentDao.deleteById(anyLong())).thenReturn(Mono.empty());
+
+        // when
+        Mono<Void> result = this.departmentService.deleteDepartment(100L);
+
+        // then
+        StepVerifier.create(result)
+                .expectErrorSatisfies(throwable -> {
+                    assertThat(throwable).isInstanceOf(DepartmentNotFoundException.class);
+                    assertThat(throwable.getMessage()).isEqualTo("El departamento con id %d no fue encontrado".formatted(100));
+                })
+                .verify();
+    }
+
+    @Test
+    void shouldChangeEmployeesWithDistinctIds_whenMembershipRequestIsValid() {
+        // given
+        MembershipChange change = new MembershipChange(1L, List.of(5L), List.of(2L), List.of());
+        when(this.departmentDao.changeEmployees(1L, List.of(5L), List.of(2L))).thenReturn(Mono.just(change));
+
+        // when
+        Mono<MembershipChange> result = this.departmentService.changeEmployees(1L, new MembershipRequest(List.of(5L, 5L), List.of(2L)));
+
+        // then
+        StepVerifier.create(result)
+                .expectNext(change)
+                .verifyComplete();
+        verify(this.departmentDao, never()).findDepartmentWithManagerAndEmployees(anyLong());
+    }
+
+    @Test
+    void shouldThrowInvalidMembershipRequestException_whenSameEmployeeIsAddedAndRemoved() {
+        // when
+        Mono<MembershipChange> result = this.departmentService.changeEmployees(1L, new MembershipRequest(List.of(5L), List.of(5L)));
+
+        // then
+        StepVerifier.create(result)
+                .expectError(InvalidMembershipRequestException.class)
+                .verify();
+        verifyNoInteractions(this.departmentDao);
+    }
+
+    @Test
+    void shouldUseMembershipLimit_insteadOfPageSize_whenValidatingMembershipChanges() {
+        // given
+        MembershipChange change = new MembershipChange(1L, List.of(5L, 6L), List.of(2L), List.of());
+        when(this.departmentDao.changeEmployees(1L, List.of(5L, 6L), List.of(2L))).thenReturn(Mono.just(change));
+
+        // when
+        Mono<MembershipChange> allowed = this.departmentService.changeEmployees(1L, new MembershipRequest(List.of(5L, 6L), List.of(2L)));
+        Mono<MembershipChange> tooMany = this.departmentService.changeEmployees(1L, new MembershipRequest(List.of(5L, 6L, 7L), List.of(2L)));
+
+        // then
+        StepVerifier.create(allowed)
+                .expectNext(change)
+                .verifyComplete();
+        StepVerifier.create(tooMany)
+                .expectErrorSatisfies(throwable -> {
+                    assertThat(throwable).isInstanceOf(InvalidMembershipRequestException.class);
+                    assertThat(throwable.getMessage()).contains("entre 1 y 3 ids");
+                })
+                .verify();
+    }
+
+    @Test
+    void shouldThrowEmployeeNotFoundException_whenAddedEmployeeDoesNotExist() {
+        // given
+        MembershipChange change = new MembershipChange(1L, List.of(), List.of(), List.of(100L));
+        when(this.departmentDao.changeEmployees(1L, List.of(100L), List.of())).thenReturn(Mono.just(change));
+
+        // when
+        Mono<Void> result = this.departmentService.addEmployee(1L, 100L);
+
+        // then
+        StepVerifier.create(result)
+                .expectErrorSatisfies(throwable -> {
+                    assertThat(throwable).isInstanceOf(EmployeeNotFoundException.class);
+                    assertThat(throwable.getMessage()).isEqualTo("El empleado con id %d no fue encontrado".formatted(100));
+                })
+                .verify();
+    }
+
+    @Test
+    void shouldThrowDepartmentNotFoundException_whenAssigningManagerToMissingDepartment() {
+        // given
+        when(this.departmentDao.assignManager(100L, 1L)).thenReturn(Mono.empty());
+
+        // when
+        Mono<Void> result = this.departmentService.assignManager(100L, 1L);
+
+        // then
+        StepVerifier.create(result)
+                .expectError(DepartmentNotFoundException.class)
+                .verify();
+    }
+}
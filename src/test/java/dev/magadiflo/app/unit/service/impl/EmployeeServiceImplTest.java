@@ -1,17 +1,28 @@
 package dev.magadiflo.app.unit.service.impl;
 
+import dev.magadiflo.app.cache.DepartmentGraphCache;
+import dev.magadiflo.app.config.PaginationProperties;
+import dev.magadiflo.app.config.StreamingProperties;
 import dev.magadiflo.app.exception.EmployeeNotFoundException;
+import dev.magadiflo.app.exception.InvalidCursorException;
+import dev.magadiflo.app.loader.BatchLoader;
+import dev.magadiflo.app.loader.SingleFlight;
+import dev.magadiflo.app.model.dto.BatchGetResult;
 import dev.magadiflo.app.model.dto.CreateEmployeeRequest;
+import dev.magadiflo.app.model.dto.KeysetPage;
 import dev.magadiflo.app.model.entity.Employee;
 import dev.magadiflo.app.repository.EmployeeRepository;
 import dev.magadiflo.app.service.impl.EmployeeServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -29,6 +40,21 @@ class EmployeeServiceImplTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties(2, 2);
+
+    @Spy
+    private StreamingProperties streamingProperties = new StreamingProperties(64);
+
+    @Mock
+    private DepartmentGraphCache departmentGraphCache;
+
+    @Spy
+    private SingleFlight<Long, Employee> employeeSingleFlight = new SingleFlight<>("employee", new SimpleMeterRegistry());
+
+    @Mock
+    private BatchLoader<Long, Employee> employeeBatchLoader;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -46,7 +72,7 @@ class EmployeeServiceImplTest {
     @Test
     void shouldReturnEmployees_whenDataExists() {
         // given
-        when(this.employeeRepository.findAll()).thenReturn(Flux.fromIterable(employees));
+        when(this.employeeRepository.streamAll(isNull(), isNull(), anyInt())).thenReturn(Flux.fromIterable(employees));
 
         // when
         Flux<Employee> result = this.employeeService.getAllEmployees(null, null);
@@ -66,17 +92,13 @@ class EmployeeServiceImplTest {
                     assertThat(employeeDB.getFirstName()).isEqualTo("Indira");
                 })
                 .verifyComplete();
-        verify(this.employeeRepository).findAll();
-        verify(this.employeeRepository, never()).findAllByPositionAndFullTime(anyString(), anyBoolean());
-        verify(this.employeeRepository, never()).findAllByPosition(anyString());
-        verify(this.employeeRepository, never()).findAllByFullTime(anyBoolean());
-
+        verify(this.employeeRepository).streamAll(null, null, 64);
     }
 
     @Test
     void shouldReturnEmployeeByPosition_whenDataExists() {
         // given
-        when(this.employeeRepository.findAllByPosition(anyString())).thenReturn(Flux.just(this.employees.get(0)));
+        when(this.employeeRepository.streamAll(anyString(), isNull(), anyInt())).thenReturn(Flux.just(this.employees.get(0)));
 
         // when
         Flux<Employee> result = this.employeeService.getAllEmployees("Desarrollador", null);
@@ -88,17 +110,14 @@ class EmployeeServiceImplTest {
                     assertThat(employeeDB.getFirstName()).isEqualTo("Martín");
                 })
                 .verifyComplete();
-        verify(this.employeeRepository, never()).findAll();
-        verify(this.employeeRepository, never()).findAllByPositionAndFullTime(anyString(), anyBoolean());
-        verify(this.employeeRepository).findAllByPosition(anyString());
-        verify(this.employeeRepository, never()).findAllByFullTime(anyBoolean());
+        verify(this.employeeRepository).streamAll("Desarrollador", null, 64);
     }
 
     @Test
     void shouldReturnEmployeeByFullTime_whenDataExists() {
         // given
         Flux<Employee> employeeFlux = Flux.just(this.employees.get(0), this.employees.get(2));
-        when(this.employeeRepository.findAllByFullTime(anyBoolean())).thenReturn(employeeFlux);
+        when(this.employeeRepository.streamAll(isNull(), anyBoolean(), anyInt())).thenReturn(employeeFlux);
 
         // when
         Flux<Employee> result = this.employeeService.getAllEmployees(null, true);
@@ -116,16 +135,13 @@ class EmployeeServiceImplTest {
                     assertThat(employeeDB.isFullTime()).isTrue();
                 })
                 .verifyComplete();
-        verify(this.employeeRepository, never()).findAll();
-        verify(this.employeeRepository, never()).findAllByPositionAndFullTime(anyString(), anyBoolean());
-        verify(this.employeeRepository, never()).findAllByPosition(anyString());
-        verify(this.employeeRepository).findAllByFullTime(anyBoolean());
+        verify(this.employeeRepository).streamAll(null, true, 64);
     }
 
     @Test
     void shouldReturnEmployeeByPositionAndFullTime_whenDataExists() {
         // given
-        when(this.employeeRepository.findAllByPositionAndFullTime(anyString(), anyBoolean())).thenReturn(Flux.just(this.employees.get(1)));
+        when(this.employeeRepository.streamAll(anyString(), anyBoolean(), anyInt())).thenReturn(Flux.just(this.employees.get(1)));
 
         // when
         Flux<Employee> result = this.employeeService.getAllEmployees("Abogada", true);
@@ -139,16 +155,62 @@ class EmployeeServiceImplTest {
                     assertThat(employeeDB.isFullTime()).isFalse();
                 })
                 .verifyComplete();
-        verify(this.employeeRepository, never()).findAll();
-        verify(this.employeeRepository).findAllByPositionAndFullTime(anyString(), anyBoolean());
-        verify(this.employeeRepository, never()).findAllByPosition(anyString());
-        verify(this.employeeRepository, never()).findAllByFullTime(anyBoolean());
+        verify(this.employeeRepository).streamAll("Abogada", true, 64);
+    }
+
+    @Test
+    void shouldReturnFirstPageWithNextCursor_whenMoreEmployeesExist() {
+        // given
+        when(this.employeeRepository.findAllByFullTimeAndIdGreaterThanOrderByIdAsc(anyBoolean(), anyLong(), any(Limit.class)))
+                .thenReturn(Flux.fromIterable(this.employees));
+
+        // when
+        Mono<KeysetPage<Employee>> result = this.employeeService.getEmployees(null, true, null, 50);
+
+        // then
+        StepVerifier.create(result)
+                .consumeNextWith(page -> {
+                    assertThat(page.content()).extracting(Employee::getId).containsExactly(1L, 2L);
+                    assertThat(KeysetPage.decodeCursor(page.nextCursor())).isEqualTo(2L);
+                })
+                .verifyComplete();
+        verify(this.employeeRepository).findAllByFullTimeAndIdGreaterThanOrderByIdAsc(true, 0L, Limit.of(3));
+    }
+
+    @Test
+    void shouldReturnLastPageWithoutNextCursor_whenCursorIsProvided() {
+        // given
+        String cursor = KeysetPage.encodeCursor(2L);
+        when(this.employeeRepository.findAllByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(Flux.just(this.employees.get(2)));
+
+        // when
+        Mono<KeysetPage<Employee>> result = this.employeeService.getEmployees(null, null, cursor, null);
+
+        // then
+        StepVerifier.create(result)
+                .consumeNextWith(page -> {
+                    assertThat(page.content()).extracting(Employee::getId).containsExactly(3L);
+                    assertThat(page.nextCursor()).isNull();
+                })
+                .verifyComplete();
+        verify(this.employeeRepository).findAllByIdGreaterThanOrderByIdAsc(2L, Limit.of(3));
+    }
+
+    @Test
+    void shouldThrowInvalidCursorException_whenCursorIsMalformed() {
+        Mono<KeysetPage<Employee>> result = this.employeeService.getEmployees(null, null, "no-es-un-cursor", null);
+
+        StepVerifier.create(result)
+                .expectError(InvalidCursorException.class)
+                .verify();
+        verifyNoInteractions(this.employeeRepository);
     }
 
     @Test
     void shouldReturnEmployee_whenValidIdIsProvided() {
         // given
-        when(this.employeeRepository.findById(anyLong())).thenReturn(Mono.just(this.employees.get(0)));
+        when(this.employeeBatchLoader.load(anyLong())).thenReturn(Mono.just(this.employees.get(0)));
 
         // when
         Mono<Employee> result = this.employeeService.showEmployee(1L);
@@ -157,13 +219,13 @@ class EmployeeServiceImplTest {
         StepVerifier.create(result)
                 .expectNext(this.employees.get(0))
                 .verifyComplete();
-        verify(this.employeeRepository).findById(anyLong());
+        verify(this.employeeBatchLoader).load(anyLong());
     }
 
     @Test
     void shouldThrowEmployeeNotFoundException_whenInvalidIdIsProvided() {
         // given
-        when(this.employeeRepository.findById(anyLong())).thenReturn(Mono.empty());
+        when(this.employeeBatchLoader.load(anyLong())).thenReturn(Mono.empty());
 
         // when
         Mono<Employee> result = this.employeeService.showEmployee(100L);
@@ -172,7 +234,22 @@ class EmployeeServiceImplTest {
         StepVerifier.create(result)
                 .expectError(EmployeeNotFoundException.class)
                 .verify();
-        verify(this.employeeRepository).findById(anyLong());
+        verify(this.employeeBatchLoader).load(anyLong());
+    }
+
+    @Test
+    void shouldReturnEmployeesInRequestOrder_whenSeveralIdsAreProvided() {
+        // given
+        when(this.employeeRepository.findAllByIds(List.of(2L, 1L))).thenReturn(Flux.just(this.employees.get(0), this.employees.get(1)));
+
+        // when
+        Flux<BatchGetResult<Employee>> result = this.employeeService.getEmployeesById(List.of(2L, 1L));
+
+        // then
+        StepVerifier.create(result)
+                .assertNext(item -> assertThat(item.data()).isEqualTo(this.employees.get(1)))
+                .assertNext(item -> assertThat(item.data()).isEqualTo(this.employees.get(0)))
+                .verifyComplete();
     }
 
     @Test
@@ -206,10 +283,8 @@ class EmployeeServiceImplTest {
                 .position("Teacher")
                 .fullTime(true)
                 .build();
-        when(this.employeeRepository.findById(anyLong())).thenReturn(Mono.just(employee));
-        employee.setPosition("Docente");
-        employee.setFullTime(false);
-        when(this.employeeRepository.save(any(Employee.class))).thenReturn(Mono.just(employee));
+        when(this.employeeRepository.updateById(1L, employee)).thenReturn(Mono.just(employee));
+        when(this.departmentGraphCache.evictEmployee(1L)).thenReturn(Mono.empty());
 
         // when
 
@@ -219,14 +294,15 @@ class EmployeeServiceImplTest {
         StepVerifier.create(result)
                 .consumeNextWith(employeeDB -> assertThat(employeeDB).isEqualTo(employee))
                 .verifyComplete();
-        verify(this.employeeRepository).findById(anyLong());
-        verify(this.employeeRepository).save(any(Employee.class));
+        verify(this.employeeRepository).updateById(1L, employee);
+        verify(this.employeeRepository, never()).findById(anyLong());
+        verify(this.departmentGraphCache).evictEmployee(1L);
     }
 
     @Test
     void shouldThrowEmployeeNotFoundException_whenInvalidIdIsProvidedForUpdated() {
         // given
-        when(this.employeeRepository.findById(anyLong())).thenReturn(Mono.empty());
+        when(this.employeeRepository.updateById(anyLong(), any(Employee.class))).thenReturn(Mono.empty());
 
         // when
         Mono<Employee> result = this.employeeService.updateEmployee(100L, this.employees.get(0));
@@ -238,15 +314,15 @@ class EmployeeServiceImplTest {
                     assertThat(throwable.getMessage()).isEqualTo("El empleado con id %d no fue encontrado".formatted(100));
                 })
                 .verify();
-        verify(this.employeeRepository).findById(anyLong());
-        verify(this.employeeRepository, never()).save(any(Employee.class));
+        verify(this.employeeRepository).updateById(anyLong(), any(Employee.class));
+        verify(this.departmentGraphCache, never()).evictEmployee(anyLong());
     }
 
     @Test
     void shouldDeleteEmployee_whenValidIdIsProvided() {
         // given
-        when(this.employeeRepository.findById(anyLong())).thenReturn(Mono.just(this.employees.get(0)));
-        when(this.employeeRepository.delete(any(Employee.class))).thenReturn(Mono.empty());
+        when(this.employeeRepository.deleteByIdReturningId(1L)).thenReturn(Mono.just(1L));
+        when(this.departmentGraphCache.evictEmployee(1L)).thenReturn(Mono.empty());
 
         // when
         Mono<Void> result = this.employeeService.deleteEmployee(1L);
@@ -254,14 +330,15 @@ class EmployeeServiceImplTest {
         // then
         StepVerifier.create(result)
                 .verifyComplete();
-        verify(this.employeeRepository).findById(anyLong());
-        verify(this.employeeRepository).delete(any(Employee.class));
+        verify(this.employeeRepository).deleteByIdReturningId(1L);
+        verify(this.employeeRepository, never()).findById(anyLong());
+        verify(this.departmentGraphCache).evictEmployee(1L);
     }
 
     @Test
     void shouldReturnEmployeeNotFoundException_whenInvalidIdIsProvided() {
         // given
-        when(this.employeeRepository.findById(anyLong())).thenReturn(Mono.empty());
+        when(this.employeeRepository.deleteByIdReturningId(anyLong())).thenReturn(Mono.empty());
 
         // when
         Mono<Void> result = this.employeeService.deleteEmployee(100L);
@@ -273,7 +350,7 @@ class EmployeeServiceImplTest {
                     assertThat(throwable.getMessage()).isEqualTo("El empleado con id %d no fue encontrado".formatted(100));
                 })
                 .verify();
-        verify(this.employeeRepository).findById(anyLong());
-        verify(this.employeeRepository, never()).delete(any(Employee.class));
+        verify(this.employeeRepository).deleteByIdReturningId(anyLong());
+        verify(this.departmentGraphCache, never()).evictEmployee(anyLong());
     }
 }
\ No newline at end of file
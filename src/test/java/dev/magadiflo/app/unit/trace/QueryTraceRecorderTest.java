@@ -0,0 +1,118 @@
+package dev.magadiflo.app.unit.trace;
+
+import dev.magadiflo.app.config.QueryTraceProperties;
+import dev.magadiflo.app.trace.QueryTrace;
+import dev.magadiflo.app.trace.QueryTraceRecorder;
+import dev.magadiflo.app.trace.TracingConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QueryTraceRecorderTest {
+
+    @Test
+    void shouldRoundCapacityUpToPowerOfTwo() {
+        assertThat(recorder(1000, 0.0, Duration.ofMillis(100)).capacity()).isEqualTo(1024);
+        assertThat(recorder(8, 0.0, Duration.ofMillis(100)).capacity()).isEqualTo(8);
+    }
+
+    @Test
+    void shouldKeepOnlyNewestStatementsInOrder_whenBufferWrapsAround() {
+        // given
+        QueryTraceRecorder recorder = recorder(4, 1.0, Duration.ofSeconds(10));
+
+        // when
+        for (int i = 1; i <= 6; i++) {
+            execute(recorder, "SELECT " + i);
+        }
+
+        // then
+        assertThat(recorder.snapshot())
+                .extracting(QueryTrace::sql)
+                .containsExactly("SELECT 3", "SELECT 4", "SELECT 5", "SELECT 6");
+    }
+
+    @Test
+    void shouldRecordSqlBindCountAndRows_whenStatementIsSampled() {
+        // given
+        QueryTraceRecorder recorder = recorder(8, 1.0, Duration.ofSeconds(10));
+
+        // when
+        execute(recorder, "SELECT id FROM departments WHERE id = ANY($1) AND name = $2");
+
+        // then
+        assertThat(recorder.snapshot()).singleElement().satisfies(trace -> {
+            assertThat(trace.bindCount()).isEqualTo(2);
+            assertThat(trace.rows()).isEqualTo(3);
+            assertThat(trace.outcome()).isEqualTo("success");
+            assertThat(trace.slow()).isFalse();
+            assertThat(trace.endpoint()).isNull();
+        });
+    }
+
+    @Test
+    void shouldNotRecordFastStatements_whenNotSampled() {
+        // given
+        QueryTraceRecorder recorder = recorder(8, 0.0, Duration.ofSeconds(10));
+
+        // when
+        execute(recorder, "SELECT 1");
+
+        // then
+        assertThat(recorder.snapshot()).isEmpty();
+    }
+
+    @Test
+    void shouldRecordSlowStatements_whenNotSampled() {
+        // given
+        QueryTraceRecorder recorder = recorder(8, 0.0, Duration.ZERO);
+
+        // when
+        execute(recorder, "SELECT pg_sleep(1)");
+
+        // then
+        assertThat(recorder.snapshot()).singleElement().satisfies(trace -> assertThat(trace.slow()).isTrue());
+    }
+
+    private static QueryTraceRecorder recorder(int capacity, double sampleRate, Duration slowThreshold) {
+        return new QueryTraceRecorder(new QueryTraceProperties(true, capacity, sampleRate, slowThreshold, Path.of("logs")));
+    }
+
+    private static void execute(QueryTraceRecorder recorder, String sql) {
+        Result result = mock(Result.class);
+        doReturn(Flux.just(1, 2, 3)).when(result).map(ArgumentMatchers.<BiFunction<Row, RowMetadata, Object>>any());
+        Statement statement = mock(Statement.class);
+        when(statement.execute()).thenAnswer(invocation -> Flux.just(result));
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement(anyString())).thenReturn(statement);
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.create()).thenAnswer(invocation -> Mono.just(connection));
+
+        Flux<Object> rows = new TracingConnectionFactory(connectionFactory, recorder).create()
+                .flatMapMany(traced -> traced.createStatement(sql)
+                        .bind("$1", new Long[]{1L})
+                        .bind("$2", "Tecnología")
+                        .execute())
+                .flatMap(traced -> traced.map((row, rowMetadata) -> row));
+
+        StepVerifier.create(rows).expectNextCount(3).verifyComplete();
+    }
+}